@@ -0,0 +1,60 @@
+package com.venkat.couch_base_crud.exception;
+
+import com.venkat.couch_base_crud.model.Employee;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.concurrent.TimeUnit;
+
+//cost of building the error bodies, the request is not used by the handlers so none is passed
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseG1GC")
+public class GlobalExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private EmployeeNotFoundException notFound;
+    private CouchbaseOperationException couchbaseFailure;
+    private MethodArgumentNotValidException notValid;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        handler = new GlobalExceptionHandler();
+        notFound = new EmployeeNotFoundException("Employee with id 42 not found");
+        couchbaseFailure = new CouchbaseOperationException("Unable to fetch employee");
+
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(new Employee(), "employee");
+        bindingResult.rejectValue("firstName", "NotBlank", "First name is required");
+        bindingResult.rejectValue("email", "Email", "Email should be valid");
+        MethodParameter parameter = new MethodParameter(
+                GlobalExceptionHandlerBenchmark.class.getDeclaredMethod("target", Employee.class), 0);
+        notValid = new MethodArgumentNotValidException(parameter, bindingResult);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> employeeNotFound() {
+        return handler.handleEmployeeNotFound(notFound, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> couchbaseOperation() {
+        return handler.handleCouchbaseOperation(couchbaseFailure, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> validationErrors() {
+        return handler.handleMethodArgumentNotValid(notValid, new HttpHeaders(), HttpStatus.BAD_REQUEST, null);
+    }
+
+    @SuppressWarnings("unused")
+    private void target(Employee employee) {
+    }
+}
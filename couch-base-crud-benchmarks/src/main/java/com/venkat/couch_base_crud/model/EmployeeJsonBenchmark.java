@@ -0,0 +1,63 @@
+package com.venkat.couch_base_crud.model;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//json mapping of employee bodies with the ObjectMapper configuration spring boot uses
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseG1GC")
+public class EmployeeJsonBenchmark {
+
+    @Param({"100"})
+    int listSize;
+
+    private ObjectWriter employeeWriter;
+    private ObjectWriter listWriter;
+    private ObjectReader employeeReader;
+    private Employee employee;
+    private List<Employee> employees;
+    private byte[] employeeJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        employeeWriter = objectMapper.writerFor(Employee.class);
+        listWriter = objectMapper.writerFor(new TypeReference<List<Employee>>() { });
+        employeeReader = objectMapper.readerFor(Employee.class);
+        employee = new Employee("3ec8d9e9-9a53-4f36-bb78-57c95676e275", "John", "Doe", "john.doe@example.com",
+                new String[]{"123 Main St, Anytown, USA", "456 Secondary Ave, Othertown, USA"});
+        employees = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            employees.add(employee);
+        }
+        employeeJson = employeeWriter.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public byte[] writeEmployee() throws IOException {
+        return employeeWriter.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public byte[] writeEmployeeList() throws IOException {
+        return listWriter.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public Employee readEmployee() throws IOException {
+        return employeeReader.readValue(employeeJson);
+    }
+}
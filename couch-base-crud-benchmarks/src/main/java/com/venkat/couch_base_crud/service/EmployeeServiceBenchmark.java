@@ -0,0 +1,89 @@
+package com.venkat.couch_base_crud.service;
+
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.repository.InMemoryEmployeeRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//service layer cost per call with the repository reduced to a map, the cache proxy is not in play
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseG1GC")
+public class EmployeeServiceBenchmark {
+
+    @Param({"1000"})
+    int employees;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private EmployeeService employeeService;
+    private Employee update;
+    private Employee patch;
+    private Employee invalid;
+
+    @Setup
+    public void setUp() {
+        employeeService = new EmployeeService(new InMemoryEmployeeRepository(Duration.ZERO, Duration.ZERO),
+                new NoOpCacheManager());
+        for (int i = 0; i < employees; i++) {
+            employeeService.createEmployee(employee("id-" + i, "user" + i + "@example.com"));
+        }
+        update = employee(null, "user0@example.com");
+        patch = new Employee();
+        patch.setLastName("Patched");
+        invalid = employee(null, "not-an-email");
+    }
+
+    @Benchmark
+    public Employee getEmployeeById() {
+        return employeeService.getEmployeeById("id-" + (sequence.getAndIncrement() % employees));
+    }
+
+    @Benchmark
+    public Employee getEmployeeByEmail() {
+        return employeeService.getEmployeeByEmail("user" + (sequence.getAndIncrement() % employees) + "@example.com");
+    }
+
+    @Benchmark
+    public Employee createAndDeleteEmployee() {
+        long n = sequence.getAndIncrement();
+        Employee created = employeeService.createEmployee(employee("new-" + n, "new" + n + "@example.com"));
+        employeeService.deleteEmployee(created.getId());
+        return created;
+    }
+
+    @Benchmark
+    public Employee updateEmployee() {
+        return employeeService.updateEmployee("id-0", update);
+    }
+
+    @Benchmark
+    public long patchEmployee() {
+        return employeeService.patchEmployee("id-1", patch, 0L);
+    }
+
+    @Benchmark
+    public void validateEmployeeData() {
+        EmployeeService.validateEmployeeData(update);
+    }
+
+    @Benchmark
+    public Object validateEmployeeData_Invalid() {
+        try {
+            EmployeeService.validateEmployeeData(invalid);
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    private static Employee employee(String id, String email) {
+        return new Employee(id, "John", "Doe", email, new String[]{"123 Main St, Anytown, USA"});
+    }
+}
@@ -0,0 +1,78 @@
+package com.venkat.couch_base_crud.loadtest;
+
+import com.venkat.couch_base_crud.CouchBaseCrudApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.couchbase.BucketDefinition;
+import org.testcontainers.couchbase.CouchbaseContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//where the load goes: a service that is already running (--target), or the application started in this
+//process on a random port, either with the inmemory profile or against a couchbase testcontainer
+final class Backend implements AutoCloseable {
+
+    private static final String BUCKET_NAME = "mycompany";
+
+    private final String baseUrl;
+    private final CouchbaseContainer container;
+    private final ConfigurableApplicationContext application;
+
+    private Backend(String baseUrl, CouchbaseContainer container, ConfigurableApplicationContext application) {
+        this.baseUrl = baseUrl;
+        this.container = container;
+        this.application = application;
+    }
+
+    static Backend start(LoadTestOptions options) {
+        if (options.target() != null) {
+            return new Backend(options.target().replaceAll("/+$", ""), null, null);
+        }
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("logging.level.root", "WARN");
+        CouchbaseContainer container = null;
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(CouchBaseCrudApplication.class);
+        switch (options.backend()) {
+            case "inmemory" -> builder.profiles("inmemory");
+            case "testcontainers" -> {
+                container = new CouchbaseContainer(DockerImageName.parse("couchbase/server:community-7.1.1"))
+                        .withBucket(new BucketDefinition(BUCKET_NAME))
+                        .withStartupTimeout(Duration.ofMinutes(2));
+                container.start();
+                properties.put("spring.couchbase.connection-string", container.getConnectionString());
+                properties.put("spring.couchbase.username", container.getUsername());
+                properties.put("spring.couchbase.password", container.getPassword());
+                properties.put("spring.couchbase.bucket.name", BUCKET_NAME);
+            }
+            default -> throw new IllegalArgumentException("Unknown backend " + options.backend() + ", use inmemory or testcontainers");
+        }
+        //options given on the command line win over the defaults above
+        properties.putAll(options.applicationProperties());
+        //as command line arguments, so they take precedence over application.yaml
+        List<String> args = new ArrayList<>();
+        properties.forEach((name, value) -> args.add("--" + name + "=" + value));
+        ConfigurableApplicationContext application = builder.run(args.toArray(String[]::new));
+        String port = application.getEnvironment().getProperty("local.server.port");
+        return new Backend("http://localhost:" + port, container, application);
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public void close() {
+        if (application != null) {
+            application.close();
+        }
+        if (container != null) {
+            container.stop();
+        }
+    }
+}
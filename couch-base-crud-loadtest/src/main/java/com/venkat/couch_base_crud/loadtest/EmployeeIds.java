@@ -0,0 +1,58 @@
+package com.venkat.couch_base_crud.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+//ids of the employees that exist, the workers read, update and delete random ones
+final class EmployeeIds {
+
+    private final List<String> ids = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    void add(String id) {
+        lock.lock();
+        try {
+            ids.add(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Optional<String> random() {
+        lock.lock();
+        try {
+            return ids.isEmpty() ? Optional.empty() : Optional.of(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //removes a random id, the last one takes its place
+    Optional<String> take() {
+        lock.lock();
+        try {
+            if (ids.isEmpty()) {
+                return Optional.empty();
+            }
+            int index = ThreadLocalRandom.current().nextInt(ids.size());
+            String id = ids.get(index);
+            ids.set(index, ids.get(ids.size() - 1));
+            ids.remove(ids.size() - 1);
+            return Optional.of(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.venkat.couch_base_crud.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+//latency per operation in microseconds, up to a minute with 3 significant digits, plus the failed calls by status
+final class LatencyReport {
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    //e.g. "GET 404" or "UPDATE io-error"
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(HIGHEST_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Operation operation, long micros) {
+        latencies.get(operation).recordValue(Math.min(Math.max(micros, 1), HIGHEST_MICROS));
+    }
+
+    void fail(Operation operation, String status) {
+        errors.get(operation).increment();
+        failures.computeIfAbsent(operation + " " + status, key -> new LongAdder()).increment();
+    }
+
+    void print(PrintStream out, LoadTestOptions options, Duration measured) {
+        double seconds = measured.toNanos() / 1e9;
+        out.printf("%nworkload %s, concurrency %d, dataset %d, %s measured after %s warm-up%s%n",
+                options.workload().name().toLowerCase().replace('_', '-'), options.concurrency(), options.datasetSize(),
+                measured, options.warmup(), options.rate() > 0 ? ", target rate " + options.rate() + "/s" : "");
+        out.printf("%-8s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "op", "count", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram total = new Histogram(HIGHEST_MICROS, 3);
+        long totalErrors = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            total.add(histogram);
+            totalErrors += errors.get(operation).sum();
+            line(out, operation.name(), histogram, errors.get(operation).sum(), seconds);
+        }
+        line(out, "TOTAL", total, totalErrors, seconds);
+        if (!failures.isEmpty()) {
+            out.println("failed calls:");
+            new TreeMap<>(failures).forEach((status, count) -> out.printf("  %-24s %d%n", status, count.sum()));
+        }
+    }
+
+    private static void line(PrintStream out, String name, Histogram histogram, long errors, double seconds) {
+        out.printf("%-8s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, histogram.getTotalCount(), errors, histogram.getTotalCount() / seconds,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,181 @@
+package com.venkat.couch_base_crud.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+//seeds the dataset through /v1/bulk, then runs concurrency workers against /employee/v1 for warm-up plus duration.
+//with a rate every call has a slot on a fixed schedule and its latency counts from that slot, so a stalled
+//service shows up as latency instead of as fewer calls (coordinated omission)
+final class LoadDriver {
+
+    private static final int SEED_BATCH = 500;
+    private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael",
+            "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas",
+            "Sarah", "Charles", "Karen", "Daniel", "Nancy", "Matthew", "Lisa", "Anthony", "Betty"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas"};
+
+    private final String employeeUrl;
+    private final LoadTestOptions options;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final EmployeeIds ids = new EmployeeIds();
+
+    LoadDriver(String baseUrl, LoadTestOptions options) {
+        this.employeeUrl = baseUrl + "/employee/v1";
+        this.options = options;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    void seed() throws IOException, InterruptedException {
+        for (int seeded = 0; seeded < options.datasetSize(); seeded += SEED_BATCH) {
+            List<String> batch = new ArrayList<>();
+            for (int i = seeded; i < Math.min(seeded + SEED_BATCH, options.datasetSize()); i++) {
+                batch.add(employeeJson(UUID.randomUUID().toString()));
+            }
+            HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(employeeUrl + "/bulk"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("[" + String.join(",", batch) + "]")));
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with " + response.statusCode() + ": " + response.body());
+            }
+            for (JsonNode item : objectMapper.readTree(response.body()).path("items")) {
+                if (item.path("status").asInt() == 201) {
+                    ids.add(item.path("id").asText());
+                }
+            }
+        }
+        System.out.printf("seeded %d employees%n", ids.size());
+    }
+
+    //returns the report and how long was measured
+    Result run() throws InterruptedException {
+        LatencyReport report = new LatencyReport();
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        //each worker's share of the rate
+        long intervalNanos = options.rate() > 0 ? TimeUnit.SECONDS.toNanos(1) * options.concurrency() / options.rate() : 0;
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < options.concurrency(); i++) {
+            //staggered so the fixed rate slots of the workers do not line up
+            long firstSlot = start + (intervalNanos * i) / options.concurrency();
+            Thread worker = new Thread(() -> work(report, firstSlot, intervalNanos, measureFrom, end), "load-worker-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return new Result(report, Duration.ofNanos(Math.min(System.nanoTime(), end) - measureFrom));
+    }
+
+    record Result(LatencyReport report, Duration measured) {
+    }
+
+    private void work(LatencyReport report, long firstSlot, long intervalNanos, long measureFrom, long end) {
+        long slot = firstSlot;
+        while (true) {
+            long callStart;
+            if (intervalNanos > 0) {
+                long wait = slot - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                callStart = slot;
+                slot += intervalNanos;
+            } else {
+                callStart = System.nanoTime();
+            }
+            if (callStart >= end) {
+                return;
+            }
+            Operation operation = options.workload().next();
+            //a delete that would shrink the dataset below half is sent, and recorded, as a create
+            if (operation == Operation.DELETE && ids.size() <= options.datasetSize() / 2) {
+                operation = Operation.CREATE;
+            }
+            String status;
+            try {
+                status = call(operation);
+            } catch (IOException e) {
+                status = "io-error";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (callStart < measureFrom) {
+                continue;
+            }
+            report.record(operation, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - callStart));
+            if (status != null) {
+                report.fail(operation, status);
+            }
+        }
+    }
+
+    //null on success, otherwise the status that counts as a failed call
+    private String call(Operation operation) throws IOException, InterruptedException {
+        Optional<String> id = operation == Operation.CREATE ? Optional.empty()
+                : operation == Operation.DELETE ? ids.take() : ids.random();
+        if (operation != Operation.CREATE && operation != Operation.SEARCH && id.isEmpty()) {
+            return "no-ids";
+        }
+        HttpRequest.Builder request = switch (operation) {
+            case GET -> HttpRequest.newBuilder(URI.create(employeeUrl + "/" + id.get())).GET();
+            case PAGE -> HttpRequest.newBuilder(URI.create(employeeUrl + "/page?size=50&cursor="
+                    + Base64.getUrlEncoder().withoutPadding().encodeToString(id.get().getBytes(StandardCharsets.UTF_8)))).GET();
+            case SEARCH -> HttpRequest.newBuilder(URI.create(employeeUrl + "/search?size=20&firstName="
+                    + FIRST_NAMES[ThreadLocalRandom.current().nextInt(FIRST_NAMES.length)].substring(0, 2))).GET();
+            case CREATE -> {
+                String newId = UUID.randomUUID().toString();
+                id = Optional.of(newId);
+                yield HttpRequest.newBuilder(URI.create(employeeUrl))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(employeeJson(newId)));
+            }
+            case UPDATE -> HttpRequest.newBuilder(URI.create(employeeUrl + "/" + id.get()))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(employeeJson(id.get())));
+            case DELETE -> HttpRequest.newBuilder(URI.create(employeeUrl + "/" + id.get())).DELETE();
+        };
+        int status = send(request).statusCode();
+        boolean succeeded = status / 100 == 2 || status == 304;
+        if (succeeded && operation == Operation.CREATE) {
+            ids.add(id.get());
+        }
+        return succeeded ? null : String.valueOf(status);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return httpClient.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    //the email is derived from the id, so an update never moves the email lookup key
+    private static String employeeJson(String id) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return """
+                {"id":"%s","firstName":"%s","lastName":"%s","email":"%s@loadtest.example.com","address":["%d Main St"]}"""
+                .formatted(id, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                        id, random.nextInt(1, 1000));
+    }
+}
@@ -0,0 +1,19 @@
+package com.venkat.couch_base_crud.loadtest;
+
+//java -jar couch-base-crud-loadtest/target/loadtest.jar --workload=mixed --concurrency=32 --dataset=10000
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        try (Backend backend = Backend.start(options)) {
+            System.out.printf("load target %s%n", backend.baseUrl());
+            LoadDriver driver = new LoadDriver(backend.baseUrl(), options);
+            driver.seed();
+            LoadDriver.Result result = driver.run();
+            result.report().print(System.out, options, result.measured());
+        }
+    }
+}
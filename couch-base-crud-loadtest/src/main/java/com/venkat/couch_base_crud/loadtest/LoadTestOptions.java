@@ -0,0 +1,53 @@
+package com.venkat.couch_base_crud.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//--name=value arguments, --spring.* and --employee.* are handed to an in process application.
+//rate 0 runs every worker flat out (closed loop), otherwise the workers share rate calls per second
+record LoadTestOptions(Workload workload, int concurrency, int datasetSize, Duration duration, Duration warmup,
+                       int rate, String backend, String target, Map<String, String> applicationProperties) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        Map<String, String> applicationProperties = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            if (name.startsWith("spring.") || name.startsWith("employee.")) {
+                applicationProperties.put(name, value);
+            } else {
+                values.put(name, value);
+            }
+        }
+        LoadTestOptions options = new LoadTestOptions(
+                Workload.parse(option(values, "workload", "mixed")),
+                Integer.parseInt(option(values, "concurrency", "32")),
+                Integer.parseInt(option(values, "dataset", "10000")),
+                DurationStyle.detectAndParse(option(values, "duration", "60s")),
+                DurationStyle.detectAndParse(option(values, "warmup", "10s")),
+                Integer.parseInt(option(values, "rate", "0")),
+                option(values, "backend", "inmemory"),
+                option(values, "target", null),
+                applicationProperties);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options " + values.keySet());
+        }
+        if (options.concurrency() < 1 || options.datasetSize() < 1 || options.rate() < 0) {
+            throw new IllegalArgumentException("concurrency and dataset must be at least 1, rate at least 0");
+        }
+        return options;
+    }
+
+    private static String option(Map<String, String> values, String name, String defaultValue) {
+        String value = values.remove(name);
+        return value == null ? defaultValue : value;
+    }
+}
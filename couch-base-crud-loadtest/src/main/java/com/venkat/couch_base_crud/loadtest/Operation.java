@@ -0,0 +1,11 @@
+package com.venkat.couch_base_crud.loadtest;
+
+//the /employee/v1 calls a workload is made of
+enum Operation {
+    GET,
+    PAGE,
+    SEARCH,
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,43 @@
+package com.venkat.couch_base_crud.loadtest;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+//operation mixes in percent, every worker draws its next call from them
+enum Workload {
+    READ_HEAVY(Map.of(Operation.GET, 80, Operation.PAGE, 8, Operation.SEARCH, 7, Operation.UPDATE, 5)),
+    WRITE_HEAVY(Map.of(Operation.GET, 10, Operation.CREATE, 35, Operation.UPDATE, 45, Operation.DELETE, 10)),
+    MIXED(Map.of(Operation.GET, 50, Operation.PAGE, 10, Operation.SEARCH, 10,
+            Operation.CREATE, 10, Operation.UPDATE, 15, Operation.DELETE, 5));
+
+    private final Operation[] slots = new Operation[100];
+    private final Map<Operation, Integer> weights;
+
+    Workload(Map<Operation, Integer> weights) {
+        this.weights = new EnumMap<>(weights);
+        int slot = 0;
+        for (Map.Entry<Operation, Integer> weight : this.weights.entrySet()) {
+            for (int i = 0; i < weight.getValue(); i++) {
+                slots[slot++] = weight.getKey();
+            }
+        }
+        if (slot != slots.length) {
+            throw new IllegalStateException(name() + " weights add up to " + slot + ", not 100");
+        }
+    }
+
+    Operation next() {
+        return slots[ThreadLocalRandom.current().nextInt(slots.length)];
+    }
+
+    Map<Operation, Integer> weights() {
+        return weights;
+    }
+
+    //read-heavy, write-heavy or mixed
+    static Workload parse(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
@@ -0,0 +1,12 @@
+package com.venkat.couch_base_crud.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+//node local read-through cache, the caffeine bounds are set by spring.cache.caffeine.spec
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String EMPLOYEE_CACHE = "employees";
+}
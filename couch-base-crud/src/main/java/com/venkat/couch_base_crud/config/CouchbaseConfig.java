@@ -1,10 +1,19 @@
 package com.venkat.couch_base_crud.config;
 
+import com.couchbase.client.java.env.ClusterEnvironment;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.couchbase.config.AbstractCouchbaseConfiguration;
 
+import java.time.Duration;
+import java.util.List;
+
 @Configuration
+@Profile("!inmemory")
 public class CouchbaseConfig extends AbstractCouchbaseConfiguration {
 
     /*@Override
@@ -39,6 +48,63 @@ public class CouchbaseConfig extends AbstractCouchbaseConfiguration {
     @Value("${spring.couchbase.bucket.name}")
     private String bucketName;
 
+    //sdk defaults unless set, see employee.couchbase in application.yaml
+    @Value("${employee.couchbase.timeout.connect:10s}")
+    private Duration connectTimeout;
+
+    @Value("${employee.couchbase.timeout.kv:2500ms}")
+    private Duration kvTimeout;
+
+    //kv writes with a durability level wait for replication or persistence and get their own budget
+    @Value("${employee.couchbase.timeout.kv-durable:10s}")
+    private Duration kvDurableTimeout;
+
+    @Value("${employee.couchbase.timeout.query:75s}")
+    private Duration queryTimeout;
+
+    @Value("${employee.couchbase.io.num-kv-connections:1}")
+    private int numKvConnections;
+
+    //a single host name in the connection string is first looked up as a dns srv record, synchronously in
+    //Cluster.connect, off skips that lookup when the hosts are listed explicitly
+    @Value("${employee.couchbase.io.dns-srv:true}")
+    private boolean dnsSrv;
+
+    //0 keeps the sdk choice, derived from the number of cpus
+    @Value("${employee.couchbase.io.event-loop-threads:0}")
+    private int eventLoopThreads;
+
+    @Value("${employee.couchbase.compression.enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${employee.couchbase.compression.min-size:32}")
+    private int compressionMinSize;
+
+    @Value("${employee.couchbase.compression.min-ratio:0.83}")
+    private double compressionMinRatio;
+
+    @Value("${employee.couchbase.orphan-reporting.enabled:true}")
+    private boolean orphanReportingEnabled;
+
+    @Value("${employee.couchbase.orphan-reporting.emit-interval:10s}")
+    private Duration orphanEmitInterval;
+
+    @Value("${employee.couchbase.orphan-reporting.sample-size:10}")
+    private int orphanSampleSize;
+
+    //request spans as micrometer observations, false keeps the sdk's threshold logging tracer
+    @Value("${employee.couchbase.tracing.observations:true}")
+    private boolean observationTracing;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ObjectProvider<ObservationRegistry> observationRegistry;
+
+    public CouchbaseConfig(ObjectProvider<MeterRegistry> meterRegistry,
+                           ObjectProvider<ObservationRegistry> observationRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+    }
+
     @Override
     public String getConnectionString() {
         return connectionString;
@@ -59,5 +125,36 @@ public class CouchbaseConfig extends AbstractCouchbaseConfiguration {
         return bucketName;
     }
 
+    //sdk kv and query latencies go to micrometer instead of the periodic log output, request spans to
+    //micrometer observations
+    @Override
+    protected void configureEnvironment(ClusterEnvironment.Builder builder) {
+        meterRegistry.ifAvailable(registry -> builder.meter(new MicrometerCouchbaseMeter(registry)));
+        if (observationTracing) {
+            observationRegistry.ifAvailable(registry -> builder.requestTracer(new MicrometerCouchbaseTracer(registry)));
+        }
+        builder.timeoutConfig(timeouts -> timeouts
+                        .connectTimeout(connectTimeout)
+                        .kvTimeout(kvTimeout)
+                        .kvDurableTimeout(kvDurableTimeout)
+                        .queryTimeout(queryTimeout))
+                .ioConfig(io -> io.numKvConnections(numKvConnections).enableDnsSrv(dnsSrv))
+                .compressionConfig(compression -> compression
+                        .enable(compressionEnabled)
+                        .minSize(compressionMinSize)
+                        .minRatio(compressionMinRatio))
+                //requests that timed out but got an answer later, logged in samples per interval
+                .orphanReporterConfig(orphans -> orphans
+                        .enabled(orphanReportingEnabled)
+                        .emitInterval(orphanEmitInterval)
+                        .sampleSize(orphanSampleSize));
+        if (eventLoopThreads > 0) {
+            builder.ioEnvironment(io -> io.eventLoopThreadCount(eventLoopThreads));
+        }
+    }
 
+    @Override
+    protected void additionalConverters(List<Object> converters) {
+        converters.add(EmployeeReadingConverter.INSTANCE);
+    }
 }
@@ -0,0 +1,113 @@
+package com.venkat.couch_base_crud.config;
+
+import com.couchbase.client.core.diagnostics.ClusterState;
+import com.couchbase.client.core.diagnostics.EndpointPingReport;
+import com.couchbase.client.core.diagnostics.PingState;
+import com.couchbase.client.core.service.ServiceType;
+import com.couchbase.client.java.Bucket;
+import com.couchbase.client.java.Cluster;
+import com.venkat.couch_base_crud.repository.EmployeeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static com.couchbase.client.java.diagnostics.PingOptions.pingOptions;
+import static com.couchbase.client.java.diagnostics.WaitUntilReadyOptions.waitUntilReadyOptions;
+
+//readiness of the instance, part of the readiness health group: out of service until the bucket is online,
+//every kv endpoint answered a ping and the repository statements are prepared, so a new instance gets
+//traffic only once the first requests no longer pay for connection setup and statement preparation
+@Slf4j
+@Component("warmUp")
+@Profile("!inmemory")
+@ConditionalOnProperty(name = "employee.warm-up.enabled", havingValue = "true", matchIfMissing = true)
+public class CouchbaseWarmUp implements HealthIndicator {
+
+    private final Cluster cluster;
+    private final String bucketName;
+    private final EmployeeRepository employeeRepository;
+    private final Duration timeout;
+    private final Duration retryDelay;
+    private volatile String step = "waiting for startup";
+    private volatile boolean warm;
+
+    public CouchbaseWarmUp(Cluster cluster,
+                           @Value("${spring.couchbase.bucket.name}") String bucketName,
+                           EmployeeRepository employeeRepository,
+                           @Value("${employee.warm-up.timeout:30s}") Duration timeout,
+                           @Value("${employee.warm-up.retry-delay:5s}") Duration retryDelay) {
+        this.cluster = cluster;
+        this.bucketName = bucketName;
+        this.employeeRepository = employeeRepository;
+        this.timeout = timeout;
+        this.retryDelay = retryDelay;
+    }
+
+    //after startup and the index manager, on its own thread so startup itself never waits for the cluster
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread worker = new Thread(this::warmUpUntilDone, "couchbase-warm-up");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public Health health() {
+        return warm
+                ? Health.up().build()
+                : Health.outOfService().withDetail("step", step).build();
+    }
+
+    void warmUpUntilDone() {
+        long started = System.nanoTime();
+        while (!warmUp()) {
+            try {
+                Thread.sleep(retryDelay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        log.info("Couchbase warm-up done after {} ms, accepting traffic", Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    //one attempt, false when a step failed and it should be tried again
+    boolean warmUp() {
+        try {
+            step = "waiting for bucket " + bucketName;
+            Bucket bucket = cluster.bucket(bucketName);
+            bucket.waitUntilReady(timeout, waitUntilReadyOptions()
+                    .desiredState(ClusterState.ONLINE)
+                    .serviceTypes(Set.of(ServiceType.KV, ServiceType.QUERY)));
+
+            step = "pinging kv endpoints";
+            List<EndpointPingReport> endpoints = bucket.ping(pingOptions().serviceTypes(Set.of(ServiceType.KV)))
+                    .endpoints().getOrDefault(ServiceType.KV, List.of());
+            long unhealthy = endpoints.stream().filter(endpoint -> endpoint.state() != PingState.OK).count();
+            if (endpoints.isEmpty() || unhealthy > 0) {
+                throw new IllegalStateException(unhealthy + " of " + endpoints.size() + " kv endpoints did not answer the ping");
+            }
+
+            //the repository runs its own statements, so the warmed plans are the ones requests use
+            step = "preparing queries";
+            employeeRepository.prepareQueries();
+
+            warm = true;
+            step = "done";
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Couchbase warm-up failed while {}, retrying in {}: {}", step, retryDelay, e.getMessage());
+            return false;
+        }
+    }
+}
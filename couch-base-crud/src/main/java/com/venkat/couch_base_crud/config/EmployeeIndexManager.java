@@ -0,0 +1,186 @@
+package com.venkat.couch_base_crud.config;
+
+import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.venkat.couch_base_crud.repository.EmployeeDocuments;
+import com.venkat.couch_base_crud.repository.EmployeeNameSearch;
+import com.venkat.couch_base_crud.repository.EmployeeStatements;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+//declares the secondary indexes behind the repository queries, creates the missing ones deferred,
+//builds them in one pass and then checks with EXPLAIN that no query plan falls back to a primary scan
+@Slf4j
+@Component
+@Profile("!inmemory")
+@ConditionalOnProperty(name = "employee.indexes.manage", havingValue = "true", matchIfMissing = true)
+public class EmployeeIndexManager implements ApplicationRunner {
+
+    //the entity queries also select META().cas, which no index holds, so they still fetch the
+    //documents, the indexes make sure it is an index range scan in front of that fetch
+    record IndexDefinition(String name, String keys, String where, List<Probe> probes) {
+    }
+
+    //a statement the repositories send, explained as is with its parameters unbound like the prepared
+    //statement is. covered ones only read the index, a Fetch in their plan means the index stopped covering
+    record Probe(String statement, boolean covered) {
+    }
+
+    private final Cluster cluster;
+    private final String bucketName;
+    private final boolean failOnPrimaryScan;
+    private final Duration buildTimeout;
+    private final boolean background;
+
+    public EmployeeIndexManager(Cluster cluster,
+                                @Value("${spring.couchbase.bucket.name}") String bucketName,
+                                @Value("${employee.indexes.fail-on-primary-scan:false}") boolean failOnPrimaryScan,
+                                @Value("${employee.indexes.build-timeout:2m}") Duration buildTimeout,
+                                @Value("${employee.indexes.background:false}") boolean background) {
+        this.cluster = cluster;
+        this.bucketName = bucketName;
+        this.failOnPrimaryScan = failOnPrimaryScan;
+        this.buildTimeout = buildTimeout;
+        this.background = background;
+    }
+
+    //keys and filters are the expressions the repository statements use, so they cover both storage formats.
+    //the _v2 names replace the earlier _class only indexes, which stay until they are dropped by hand
+    List<IndexDefinition> indexes() {
+        String bucket = "`" + bucketName + "`";
+        String filter = EmployeeDocuments.FILTER;
+        String firstName = EmployeeDocuments.FIRST_NAME;
+        String lastName = EmployeeDocuments.LAST_NAME;
+        String email = EmployeeDocuments.EMAIL;
+        return List.of(
+                //findAll, streamAll, count and findPageAfterId: employee documents in id order for the keyset pages
+                new IndexDefinition("idx_employee_id_v2", "META().id", filter, List.of(
+                        new Probe(EmployeeStatements.selectEmployees(bucket), false),
+                        new Probe(EmployeeStatements.selectPageAfterId(bucket), false),
+                        new Probe(EmployeeStatements.count(bucket), false))),
+                new IndexDefinition("idx_employee_email_v2", email, filter, List.of(
+                        new Probe(EmployeeStatements.selectByEmail(bucket), false))),
+                //findByFirstName and /search by first name, with lastName and email along so the search is covered
+                new IndexDefinition("idx_employee_first_name_search_v2", firstName + ", META().id, " + lastName + ", " + email, filter, List.of(
+                        new Probe(EmployeeStatements.selectByFirstName(bucket), false),
+                        searchProbe(bucket, "Jo", null, null),
+                        searchProbe(bucket, "Jo", "D", null),
+                        searchProbe(bucket, "Jo", null, "id"))),
+                new IndexDefinition("idx_employee_last_name_search_v2", lastName + ", META().id, " + firstName + ", " + email, filter, List.of(
+                        searchProbe(bucket, null, "D", null),
+                        searchProbe(bucket, null, "D", "id"))));
+    }
+
+    //the search statement with the default fields, afterId set for the pages after the first
+    private static Probe searchProbe(String bucket, String firstName, String lastName, String afterId) {
+        EmployeeNameSearch search = new EmployeeNameSearch(firstName, lastName, EmployeeNameSearch.INDEXED_FIELDS,
+                afterId == null ? null : "name", afterId, 100);
+        return new Probe(EmployeeStatements.searchByName(bucket, search), true);
+    }
+
+    //in the background startup does not wait for the cluster, a failure is only logged then
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!background) {
+            manageIndexes();
+            return;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                manageIndexes();
+            } catch (RuntimeException e) {
+                log.error("Managing employee indexes failed", e);
+            }
+        }, "employee-index-manager");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    void manageIndexes() {
+        List<IndexDefinition> indexes = indexes();
+        for (IndexDefinition index : indexes) {
+            cluster.query(createStatement(index));
+        }
+        cluster.queryIndexes().buildDeferredIndexes(bucketName);
+        cluster.queryIndexes().watchIndexes(bucketName, indexes.stream().map(IndexDefinition::name).toList(), buildTimeout);
+        log.info("Employee indexes online: {}", indexes.stream().map(IndexDefinition::name).toList());
+
+        List<String> primaryScans = new ArrayList<>();
+        for (IndexDefinition index : indexes) {
+            for (Probe probe : index.probes()) {
+                JsonObject plan = cluster.query("EXPLAIN " + probe.statement()).rowsAsObject().get(0).getObject("plan");
+                if (usesPrimaryScan(plan)) {
+                    primaryScans.add(probe.statement());
+                } else if (probe.covered() && fetchesDocuments(plan)) {
+                    log.warn("Query expected to be covered by {} fetches documents: {}", index.name(), probe.statement());
+                } else {
+                    log.debug("{} uses {}", probe.statement(), indexesUsed(plan));
+                }
+            }
+        }
+        if (primaryScans.isEmpty()) {
+            return;
+        }
+        if (failOnPrimaryScan) {
+            throw new IllegalStateException("Queries planned as primary scans: " + primaryScans);
+        }
+        primaryScans.forEach(statement -> log.warn("Query planned as a primary scan: {}", statement));
+    }
+
+    String createStatement(IndexDefinition index) {
+        return "CREATE INDEX `" + index.name() + "` IF NOT EXISTS ON `" + bucketName + "`(" + index.keys() + ")"
+                + (index.where() == null ? "" : " WHERE " + index.where())
+                + " WITH {\"defer_build\": true}";
+    }
+
+    static boolean usesPrimaryScan(Object plan) {
+        return operators(plan).stream().anyMatch(operator -> operator.startsWith("PrimaryScan"));
+    }
+
+    static boolean fetchesDocuments(Object plan) {
+        return operators(plan).contains("Fetch");
+    }
+
+    static Set<String> indexesUsed(Object plan) {
+        Set<String> names = new TreeSet<>();
+        collect(plan, node -> {
+            if (node.get("#operator") instanceof String operator && operator.startsWith("IndexScan")
+                    && node.get("index") instanceof String index) {
+                names.add(index);
+            }
+        });
+        return names;
+    }
+
+    private static List<String> operators(Object plan) {
+        List<String> operators = new ArrayList<>();
+        collect(plan, node -> {
+            if (node.get("#operator") instanceof String operator) {
+                operators.add(operator);
+            }
+        });
+        return operators;
+    }
+
+    private static void collect(Object node, Consumer<JsonObject> visitor) {
+        if (node instanceof JsonObject object) {
+            visitor.accept(object);
+            object.getNames().forEach(name -> collect(object.get(name), visitor));
+        } else if (node instanceof JsonArray array) {
+            array.forEach(element -> collect(element, visitor));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.venkat.couch_base_crud.config;
+
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.repository.EmployeeDocuments;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.couchbase.core.mapping.CouchbaseDocument;
+
+//spring data reads Employee through EmployeeDocuments, so findById, the @Query methods and the templates
+//take both storage formats. writes go through the repository fragments, which encode it themselves
+@ReadingConverter
+enum EmployeeReadingConverter implements Converter<CouchbaseDocument, Employee> {
+    INSTANCE;
+
+    @Override
+    public Employee convert(CouchbaseDocument document) {
+        return EmployeeDocuments.decode(document.getId() == null ? null : document.getId().toString(), document.export());
+    }
+}
@@ -0,0 +1,22 @@
+package com.venkat.couch_base_crud.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+//list responses have no single cas, their ETag is a hash of the body and a match turns into a 304.
+//the body is still built, only the bytes on the wire are saved. not on /v1/stream, that would buffer it
+@Configuration
+@Profile("!reactive")
+public class ListETagConfig {
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> listETagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/employee/v1", "/employee/v1/page", "/employee/v1/search");
+        return registration;
+    }
+}
@@ -0,0 +1,49 @@
+package com.venkat.couch_base_crud.config;
+
+import com.couchbase.client.core.cnc.Counter;
+import com.couchbase.client.core.cnc.Meter;
+import com.couchbase.client.core.cnc.ValueRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//feeds the couchbase sdk metrics into micrometer. the sdk only records operation latencies
+//(db.couchbase.operations, in microseconds, tagged with service, operation and outcome),
+//they become timers so they get the same percentiles as the service timers
+class MicrometerCouchbaseMeter implements Meter {
+
+    private final MeterRegistry registry;
+
+    MicrometerCouchbaseMeter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Counter counter(String name, Map<String, String> tags) {
+        io.micrometer.core.instrument.Counter counter = registry.counter(name, toTags(tags));
+        return counter::increment;
+    }
+
+    @Override
+    public ValueRecorder valueRecorder(String name, Map<String, String> tags) {
+        Timer timer = Timer.builder(name)
+                .tags(toTags(tags))
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(registry);
+        return micros -> timer.record(micros, TimeUnit.MICROSECONDS);
+    }
+
+    private static Tags toTags(Map<String, String> tags) {
+        Tags result = Tags.empty();
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (tag.getValue() != null) {
+                result = result.and(tag.getKey(), tag.getValue());
+            }
+        }
+        return result;
+    }
+}
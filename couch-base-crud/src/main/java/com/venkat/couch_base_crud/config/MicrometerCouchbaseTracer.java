@@ -0,0 +1,103 @@
+package com.venkat.couch_base_crud.config;
+
+import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.core.cnc.RequestTracer;
+import com.couchbase.client.core.msg.RequestContext;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+//feeds the couchbase sdk request spans into micrometer observations, so kv and query requests show up
+//under the http observation of the call in whatever tracing the application reports to. the sdk span name
+//becomes the contextual name. its attributes are high cardinality only: they differ between span kinds, and
+//as tags they would give db.couchbase.requests different tag keys, which prometheus refuses
+class MicrometerCouchbaseTracer implements RequestTracer {
+
+    static final String OBSERVATION_NAME = "db.couchbase.requests";
+
+    private final ObservationRegistry registry;
+
+    MicrometerCouchbaseTracer(ObservationRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public RequestSpan requestSpan(String name, RequestSpan parent) {
+        Observation observation = Observation.createNotStarted(OBSERVATION_NAME, registry)
+                .contextualName(name)
+                .lowCardinalityKeyValue("span", name)
+                .lowCardinalityKeyValue("status", status(RequestSpan.StatusCode.UNSET));
+        if (parent instanceof ObservationSpan parentSpan) {
+            observation.parentObservation(parentSpan.observation);
+        }
+        return new ObservationSpan(observation.start());
+    }
+
+    @Override
+    public Mono<Void> start() {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> stop(Duration timeout) {
+        return Mono.empty();
+    }
+
+    private static String status(RequestSpan.StatusCode status) {
+        return status.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class ObservationSpan implements RequestSpan {
+
+        private final Observation observation;
+
+        private ObservationSpan(Observation observation) {
+            this.observation = observation;
+        }
+
+        @Override
+        public void attribute(String key, String value) {
+            if (value != null) {
+                observation.highCardinalityKeyValue(key, value);
+            }
+        }
+
+        @Override
+        public void attribute(String key, boolean value) {
+            observation.highCardinalityKeyValue(key, String.valueOf(value));
+        }
+
+        @Override
+        public void attribute(String key, long value) {
+            observation.highCardinalityKeyValue(key, String.valueOf(value));
+        }
+
+        @Override
+        public void event(String name, Instant timestamp) {
+            observation.event(Observation.Event.of(name));
+        }
+
+        @Override
+        public void status(StatusCode status) {
+            observation.lowCardinalityKeyValue("status", MicrometerCouchbaseTracer.status(status));
+        }
+
+        @Override
+        public void recordException(Throwable error) {
+            observation.error(error);
+        }
+
+        @Override
+        public void end() {
+            observation.stop();
+        }
+
+        @Override
+        public void requestContext(RequestContext requestContext) {
+        }
+    }
+}
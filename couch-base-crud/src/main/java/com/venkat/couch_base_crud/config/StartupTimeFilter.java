@@ -0,0 +1,45 @@
+package com.venkat.couch_base_crud.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//logs how long after jvm start the application was ready and answered its first request,
+//the numbers to compare between the plain and the fast-startup build
+@Slf4j
+@Component
+@Profile("!reactive")
+public class StartupTimeFilter extends OncePerRequestFilter {
+
+    private final AtomicBoolean answered = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ready() {
+        log.info("Ready {} ms after jvm start", uptimeMillis());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        filterChain.doFilter(request, response);
+        if (!answered.get() && answered.compareAndSet(false, true)) {
+            log.info("First request {} {} answered {} ms after jvm start",
+                    request.getMethod(), request.getRequestURI(), uptimeMillis());
+        }
+    }
+
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
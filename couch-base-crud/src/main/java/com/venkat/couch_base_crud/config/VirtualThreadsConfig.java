@@ -0,0 +1,22 @@
+package com.venkat.couch_base_crud.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+//spring boot silently keeps platform threads below java 21, make that visible
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    public VirtualThreadsConfig() {
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < 21) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads, " +
+                    "requests keep running on the platform thread pool", javaVersion);
+        } else {
+            log.info("Serving requests and application tasks on virtual threads");
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.venkat.couch_base_crud.controller;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.venkat.couch_base_crud.model.BulkResult;
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.service.EmployeeBulkService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+//bulk variants of the /employee/v1 writes, bodies are json arrays or newline delimited json
+@RestController
+@Profile("!reactive")
+@RequestMapping("/employee")
+public class EmployeeBulkController {
+
+    private final EmployeeBulkService employeeBulkService;
+    private final ObjectReader employeeReader;
+    private final ObjectReader idReader;
+
+    public EmployeeBulkController(EmployeeBulkService employeeBulkService, ObjectMapper objectMapper) {
+        this.employeeBulkService = employeeBulkService;
+        this.employeeReader = objectMapper.readerFor(Employee.class);
+        this.idReader = objectMapper.readerFor(String.class);
+    }
+
+    @PostMapping(value = "/v1/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkResult> createEmployees(@RequestBody List<Employee> employees) {
+        return ResponseEntity.ok(employeeBulkService.createEmployees(employees.iterator()));
+    }
+
+    @PostMapping(value = "/v1/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkResult> createEmployeesStream(InputStream body) throws IOException {
+        try (MappingIterator<Employee> employees = employeeReader.readValues(body)) {
+            return ResponseEntity.ok(employeeBulkService.createEmployees(employees));
+        }
+    }
+
+    @PutMapping(value = "/v1/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkResult> updateEmployees(@RequestBody List<Employee> employees) {
+        return ResponseEntity.ok(employeeBulkService.updateEmployees(employees.iterator()));
+    }
+
+    @PutMapping(value = "/v1/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkResult> updateEmployeesStream(InputStream body) throws IOException {
+        try (MappingIterator<Employee> employees = employeeReader.readValues(body)) {
+            return ResponseEntity.ok(employeeBulkService.updateEmployees(employees));
+        }
+    }
+
+    @DeleteMapping(value = "/v1/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkResult> deleteEmployees(@RequestBody List<String> ids) {
+        return ResponseEntity.ok(employeeBulkService.deleteEmployees(ids.iterator()));
+    }
+
+    @DeleteMapping(value = "/v1/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkResult> deleteEmployeesStream(InputStream body) throws IOException {
+        try (MappingIterator<String> ids = idReader.readValues(body)) {
+            return ResponseEntity.ok(employeeBulkService.deleteEmployees(ids));
+        }
+    }
+}
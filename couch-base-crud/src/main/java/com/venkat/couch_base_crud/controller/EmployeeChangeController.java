@@ -0,0 +1,44 @@
+package com.venkat.couch_base_crud.controller;
+
+import com.venkat.couch_base_crud.model.EmployeeChange;
+import com.venkat.couch_base_crud.service.EmployeeChangeFeed;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Locale;
+
+//served by both stacks, spring mvc writes the flux as an sse response too
+@RestController
+@RequestMapping("/employee")
+@Profile("!inmemory")
+@ConditionalOnProperty(name = "employee.change-feed.enabled", havingValue = "true")
+public class EmployeeChangeController {
+
+    //keeps proxies from closing a connection that has nothing to send
+    private static final Duration HEARTBEAT = Duration.ofSeconds(15);
+
+    private final EmployeeChangeFeed changeFeed;
+
+    public EmployeeChangeController(EmployeeChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    //every current employee as an upsert event, one snapshot_end event, then live upsert and delete events
+    @GetMapping(value = "/v1/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<EmployeeChange>> changes() {
+        Flux<ServerSentEvent<EmployeeChange>> events = changeFeed.changes()
+                .map(change -> ServerSentEvent.builder(change)
+                        .event(change.getType().name().toLowerCase(Locale.ROOT))
+                        .build());
+        Flux<ServerSentEvent<EmployeeChange>> heartbeats = Flux.interval(HEARTBEAT)
+                .map(tick -> ServerSentEvent.<EmployeeChange>builder().comment("heartbeat").build());
+        return Flux.merge(events, heartbeats);
+    }
+}
@@ -1,31 +1,109 @@
 package com.venkat.couch_base_crud.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.model.EmployeeBatch;
+import com.venkat.couch_base_crud.model.EmployeeConsistency;
+import com.venkat.couch_base_crud.model.EmployeePage;
+import com.venkat.couch_base_crud.model.EmployeeSearchPage;
 import com.venkat.couch_base_crud.service.EmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.OptionalLong;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/employee")
 public class EmployeeController {
 
     private final EmployeeService employeeService;
+    private final ObjectWriter employeeWriter;
 
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, ObjectMapper objectMapper) {
         this.employeeService = employeeService;
+        //the response stream is shared by every line, so the writer must not close it
+        this.employeeWriter = objectMapper.writerFor(Employee.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
+    //the query endpoints take ?consistency=not_bounded (default), at_plus or request_plus
     @GetMapping("v1")
-    public ResponseEntity<List<Employee>> getAllEmployees() {
-        return ResponseEntity.ok(employeeService.getAllEmployees());
+    public ResponseEntity<List<Employee>> getAllEmployees(@RequestParam(required = false) String consistency) {
+        return ResponseEntity.ok(employeeService.getAllEmployees(EmployeeConsistency.parse(consistency)));
     }
 
+    @GetMapping("/v1/page")
+    public ResponseEntity<EmployeePage> getEmployeePage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String consistency) {
+        return ResponseEntity.ok(employeeService.getEmployeePage(cursor, size, EmployeeConsistency.parse(consistency)));
+    }
+
+    //e.g. /v1/search?firstName=Jo&fields=id,email&size=50, prefixes are case sensitive
+    @GetMapping("/v1/search")
+    public ResponseEntity<EmployeeSearchPage> searchEmployees(
+            @RequestParam(required = false) String firstName,
+            @RequestParam(required = false) String lastName,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String consistency) {
+        return ResponseEntity.ok(employeeService.searchEmployees(
+                firstName, lastName, fields, cursor, size, EmployeeConsistency.parse(consistency)));
+    }
+
+    //newline delimited json, one employee per line written as soon as it is read
+    @GetMapping(value = "/v1/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllEmployees(@RequestParam(required = false) String consistency) {
+        EmployeeConsistency scan = EmployeeConsistency.parse(consistency);
+        StreamingResponseBody body = outputStream -> employeeService.streamAllEmployees(scan, employee -> {
+            try {
+                employeeWriter.writeValue(outputStream, employee);
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    //a matching If-None-Match is answered with 304 from the cas alone, the body is not read or serialized
     @GetMapping("/v1/{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable String id) {
-        return ResponseEntity.ok(employeeService.getEmployeeById(id));
+    public ResponseEntity<Employee> getEmployeeById(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            OptionalLong version = employeeService.getEmployeeVersion(id);
+            if (version.isPresent() && EmployeeETags.matchesAny(ifNoneMatch, version.getAsLong())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(EmployeeETags.of(version.getAsLong()))
+                        .build();
+            }
+        }
+        Employee employee = employeeService.getEmployeeById(id);
+        return ResponseEntity.ok()
+                .eTag(EmployeeETags.of(employee.getVersion()))
+                .body(employee);
+    }
+
+    //body is a json array of ids, e.g. ["id1", "id2"]
+    @PostMapping("/v1/_mget")
+    public ResponseEntity<EmployeeBatch> getEmployeesByIds(@RequestBody List<String> ids) {
+        return ResponseEntity.ok(employeeService.getEmployeesByIds(ids));
     }
 
     @PostMapping("/v1")
@@ -35,8 +113,30 @@ public class EmployeeController {
 
     @PutMapping("/v1/{id}")
     public ResponseEntity<Employee> updateEmployee(
-            @PathVariable String id, @RequestBody Employee employee) {
-        return ResponseEntity.ok(employeeService.updateEmployee(id, employee));
+            @PathVariable String id, @RequestBody Employee employee,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        long cas = EmployeeETags.parse(ifMatch);
+        Employee updated = cas == EmployeeETags.ANY
+                ? employeeService.updateEmployee(id, employee)
+                : employeeService.replaceEmployee(id, employee, cas);
+        //version 0: buffered by write-behind, not written yet, so there is no cas to hand out
+        if (updated.getVersion() == 0) {
+            return ResponseEntity.accepted().body(updated);
+        }
+        return ResponseEntity.ok()
+                .eTag(EmployeeETags.of(updated.getVersion()))
+                .body(updated);
+    }
+
+    //only the fields present in the body are written
+    @PatchMapping("/v1/{id}")
+    public ResponseEntity<Void> patchEmployee(
+            @PathVariable String id, @RequestBody Employee changes,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        long cas = employeeService.patchEmployee(id, changes, EmployeeETags.parse(ifMatch));
+        return ResponseEntity.noContent()
+                .eTag(EmployeeETags.of(cas))
+                .build();
     }
 
     @DeleteMapping("/v1/{id}")
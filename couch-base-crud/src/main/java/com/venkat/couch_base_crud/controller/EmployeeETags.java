@@ -0,0 +1,57 @@
+package com.venkat.couch_base_crud.controller;
+
+import com.venkat.couch_base_crud.exception.EmployeeVersionConflictException;
+import com.venkat.couch_base_crud.exception.InvalidEmployeeDataException;
+import org.springframework.util.StringUtils;
+
+//the document cas travels as a strong ETag, If-Match hands it back for a cas guarded write
+//and If-None-Match for a 304 when the employee did not change
+final class EmployeeETags {
+
+    //no If-Match or If-Match: * means the write is not conditional
+    static final long ANY = 0L;
+
+    private EmployeeETags() {
+    }
+
+    static String of(long cas) {
+        return "\"" + Long.toUnsignedString(cas) + "\"";
+    }
+
+    //If-Match compares strongly, a weak tag never matches and the write fails its precondition
+    static long parse(String ifMatch) {
+        if (!StringUtils.hasText(ifMatch) || ifMatch.trim().equals("*")) {
+            return ANY;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            throw new EmployeeVersionConflictException("If-Match " + tag + " is a weak tag and never matches");
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new InvalidEmployeeDataException("Invalid If-Match header");
+        }
+        try {
+            return Long.parseUnsignedLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new InvalidEmployeeDataException("Invalid If-Match header");
+        }
+    }
+
+    //weak comparison as If-None-Match asks for, any tag of the list may match
+    static boolean matchesAny(String ifNoneMatch, long cas) {
+        if (!StringUtils.hasText(ifNoneMatch)) {
+            return false;
+        }
+        String current = of(cas);
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,57 @@
+package com.venkat.couch_base_crud.controller;
+
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.service.ReactiveEmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/employee")
+@Profile("reactive")
+public class ReactiveEmployeeController {
+
+    private final ReactiveEmployeeService employeeService;
+
+    public ReactiveEmployeeController(ReactiveEmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    @GetMapping(value = "/v2", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<Employee> getAllEmployees() {
+        return employeeService.getAllEmployees();
+    }
+
+    //newline delimited json, written with backpressure as the query result arrives
+    @GetMapping(value = "/v2/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Employee> streamAllEmployees() {
+        return employeeService.getAllEmployees();
+    }
+
+    @GetMapping("/v2/{id}")
+    public Mono<Employee> getEmployeeById(@PathVariable String id) {
+        return employeeService.getEmployeeById(id);
+    }
+
+    @PostMapping("/v2")
+    public Mono<ResponseEntity<Employee>> createEmployee(@RequestBody Employee employee) {
+        return employeeService.createEmployee(employee)
+                .map(created -> new ResponseEntity<>(created, HttpStatus.CREATED));
+    }
+
+    @PutMapping("/v2/{id}")
+    public Mono<Employee> updateEmployee(
+            @PathVariable String id, @RequestBody Employee employee) {
+        return employeeService.updateEmployee(id, employee);
+    }
+
+    @DeleteMapping("/v2/{id}")
+    public Mono<ResponseEntity<Void>> deleteEmployee(@PathVariable String id) {
+        return employeeService.deleteEmployee(id)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+}
@@ -0,0 +1,15 @@
+package com.venkat.couch_base_crud.exception;
+
+public class EmployeeOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public EmployeeOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,8 @@
+package com.venkat.couch_base_crud.exception;
+
+public class EmployeeUpdateConflictException extends RuntimeException {
+
+    public EmployeeUpdateConflictException(String message) {
+        super(message);
+    }
+}
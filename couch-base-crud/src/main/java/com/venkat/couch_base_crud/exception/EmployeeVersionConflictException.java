@@ -0,0 +1,8 @@
+package com.venkat.couch_base_crud.exception;
+
+public class EmployeeVersionConflictException extends RuntimeException {
+
+    public EmployeeVersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,60 @@
+package com.venkat.couch_base_crud.exception;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.reactive.result.method.annotation.ResponseEntityExceptionHandler;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//same response bodies as GlobalExceptionHandler for the webflux stack
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveGlobalExceptionHandler extends ResponseEntityExceptionHandler {
+
+    @ExceptionHandler(EmployeeNotFoundException.class)
+    public Mono<ResponseEntity<Object>> handleEmployeeNotFound(EmployeeNotFoundException ex) {
+        return respond(HttpStatus.NOT_FOUND, "Not Found", ex.getMessage());
+    }
+
+    @ExceptionHandler(EmployeeAlreadyExistsException.class)
+    public Mono<ResponseEntity<Object>> handleEmployeeAlreadyExists(EmployeeAlreadyExistsException ex) {
+        return respond(HttpStatus.CONFLICT, "Conflict", ex.getMessage());
+    }
+
+    @ExceptionHandler(EmployeeVersionConflictException.class)
+    public Mono<ResponseEntity<Object>> handleEmployeeVersionConflict(EmployeeVersionConflictException ex) {
+        return respond(HttpStatus.PRECONDITION_FAILED, "Precondition Failed", ex.getMessage());
+    }
+
+    @ExceptionHandler(EmployeeUpdateConflictException.class)
+    public Mono<ResponseEntity<Object>> handleEmployeeUpdateConflict(EmployeeUpdateConflictException ex) {
+        return respond(HttpStatus.CONFLICT, "Conflict", ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidEmployeeDataException.class)
+    public Mono<ResponseEntity<Object>> handleInvalidEmployeeData(InvalidEmployeeDataException ex) {
+        return respond(HttpStatus.BAD_REQUEST, "Bad Request", ex.getMessage());
+    }
+
+    @ExceptionHandler(CouchbaseOperationException.class)
+    public Mono<ResponseEntity<Object>> handleCouchbaseOperation(CouchbaseOperationException ex) {
+        return respond(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error",
+                "Database operation failed: " + ex.getMessage());
+    }
+
+    private Mono<ResponseEntity<Object>> respond(HttpStatus status, String error, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", status.value());
+        body.put("error", error);
+        body.put("message", message);
+
+        return Mono.just(new ResponseEntity<>(body, status));
+    }
+}
@@ -0,0 +1,17 @@
+package com.venkat.couch_base_crud.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkItemResult {
+    //position of the item in the request
+    private int index;
+    private String id;
+    //http status the single item endpoint would have answered with
+    private int status;
+    private String error;
+}
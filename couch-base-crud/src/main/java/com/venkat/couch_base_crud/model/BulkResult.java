@@ -0,0 +1,16 @@
+package com.venkat.couch_base_crud.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkResult {
+    private int succeeded;
+    private int failed;
+    private List<BulkItemResult> items;
+}
@@ -4,11 +4,12 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.couchbase.core.mapping.Document;
 import org.springframework.data.couchbase.core.mapping.Field;
 import org.springframework.data.couchbase.core.mapping.id.GeneratedValue;
@@ -16,7 +17,6 @@ import org.springframework.data.couchbase.core.mapping.id.GenerationStrategy;
 
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 @Document
 public class Employee {
     @Id
@@ -39,4 +39,17 @@ public class Employee {
     @NotNull(message = "Address is required")
     @Size(min = 1, message = "At least one address is required")
     private String[] address;
+
+    //document cas, sent to clients as the ETag instead of being part of the body
+    @Version
+    @JsonIgnore
+    private long version;
+
+    public Employee(String id, String firstName, String lastName, String email, String[] address) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.address = address;
+    }
 }
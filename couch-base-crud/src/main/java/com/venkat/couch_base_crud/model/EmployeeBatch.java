@@ -0,0 +1,16 @@
+package com.venkat.couch_base_crud.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeBatch {
+    //found employees, in the order their ids were requested
+    private List<Employee> items;
+    private List<String> missing;
+}
@@ -0,0 +1,25 @@
+package com.venkat.couch_base_crud.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//one entry of the change feed. cas only grows per document, a consumer keeps the change with the highest cas
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeChange {
+
+    public enum Type {
+        UPSERT,
+        DELETE,
+        //every employee of the initial snapshot was sent, what follows is live
+        SNAPSHOT_END
+    }
+
+    private Type type;
+    private String id;
+    private long cas;
+    //null for DELETE and SNAPSHOT_END
+    private Employee employee;
+}
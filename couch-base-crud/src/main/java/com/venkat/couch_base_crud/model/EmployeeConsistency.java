@@ -0,0 +1,26 @@
+package com.venkat.couch_base_crud.model;
+
+import com.venkat.couch_base_crud.exception.InvalidEmployeeDataException;
+
+import java.util.Locale;
+
+//how far the index must have caught up before a query endpoint reads it, picked per request with ?consistency=
+public enum EmployeeConsistency {
+    //whatever the index holds right now, no waiting
+    NOT_BOUNDED,
+    //the index holds at least the writes made through this instance
+    AT_PLUS,
+    //the index holds every write made before the query, on any instance
+    REQUEST_PLUS;
+
+    public static EmployeeConsistency parse(String value) {
+        if (value == null || value.isBlank()) {
+            return NOT_BOUNDED;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEmployeeDataException("Invalid consistency " + value);
+        }
+    }
+}
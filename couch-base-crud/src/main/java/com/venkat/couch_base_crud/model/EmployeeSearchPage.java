@@ -0,0 +1,18 @@
+package com.venkat.couch_base_crud.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeSearchPage {
+    //each item only holds the requested fields
+    private List<Map<String, Object>> items;
+    //null on the last page
+    private String nextCursor;
+}
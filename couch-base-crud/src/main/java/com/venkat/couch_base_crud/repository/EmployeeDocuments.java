@@ -0,0 +1,114 @@
+package com.venkat.couch_base_crud.repository;
+
+import com.venkat.couch_base_crud.model.Employee;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//storage encodings of an employee document. JSON is the layout spring data maps Employee to: full field names
+//and _class. COMPACT (version 2) uses short field names and a version marker in place of _class. both are
+//always read, employee.storage.format picks the one written. statements match either through FILTER and
+//the field expressions, so a bucket can hold both while it moves over
+public final class EmployeeDocuments {
+
+    public enum Format {
+        JSON,
+        COMPACT
+    }
+
+    public static final String CLASS_FIELD = "_class";
+    public static final String VERSION_FIELD = "_e";
+    public static final int COMPACT_VERSION = 2;
+    public static final String EMAIL_KEY_PREFIX = EmployeeEmailKeys.KEY_PREFIX;
+
+    //constants so they can go into @Query, EmployeeDocumentsTest keeps the class name in step with Employee
+    public static final String FILTER =
+            "(`_e` = 2 OR `_class` = \"com.venkat.couch_base_crud.model.Employee\")";
+    public static final String FIRST_NAME = "IFMISSINGORNULL(`fn`, `firstName`)";
+    public static final String LAST_NAME = "IFMISSINGORNULL(`ln`, `lastName`)";
+    public static final String EMAIL = "IFMISSINGORNULL(`em`, `email`)";
+
+    private static final Map<String, String> ALIASES =
+            Map.of("firstName", "fn", "lastName", "ln", "email", "em", "address", "ad");
+
+    private EmployeeDocuments() {
+    }
+
+    //n1ql expression reading a field from either format
+    public static String field(String name) {
+        return "IFMISSINGORNULL(`" + alias(name) + "`, `" + name + "`)";
+    }
+
+    //top level fields a value can be stored under, compact first, for sub-document lookups of either format
+    public static List<String> paths(String name) {
+        return List.of(alias(name), name);
+    }
+
+    //the email lookup documents share the collection, no employee id may take one of their keys
+    public static boolean isEmployeeKey(String id) {
+        return id != null && !id.startsWith(EMAIL_KEY_PREFIX);
+    }
+
+    public static boolean isEmployee(Map<String, ?> content) {
+        return content.get(VERSION_FIELD) instanceof Number version && version.intValue() == COMPACT_VERSION
+                || Employee.class.getName().equals(content.get(CLASS_FIELD));
+    }
+
+    //content without the id, which is the document key
+    public static Map<String, Object> encode(Employee employee, Format format) {
+        Map<String, Object> content = new LinkedHashMap<>();
+        if (format == Format.COMPACT) {
+            content.put(VERSION_FIELD, COMPACT_VERSION);
+        } else {
+            content.put(CLASS_FIELD, Employee.class.getName());
+        }
+        put(content, format, "firstName", employee.getFirstName());
+        put(content, format, "lastName", employee.getLastName());
+        put(content, format, "email", employee.getEmail());
+        put(content, format, "address", employee.getAddress() == null ? null : List.of(employee.getAddress()));
+        return content;
+    }
+
+    //a short name wins over the full one unless it is null, see patch
+    public static Employee decode(String id, Map<String, ?> content) {
+        Object address = read(content, "address");
+        return new Employee(id, (String) read(content, "firstName"), (String) read(content, "lastName"),
+                (String) read(content, "email"),
+                address instanceof List<?> lines ? lines.stream().map(String::valueOf).toArray(String[]::new) : null);
+    }
+
+    //sub-document paths for a partial update. the document may be in either format, so JSON also nulls the short
+    //names, a compact document then reads the new values and instances still on the old encoding ignore them
+    public static Map<String, Object> patch(Map<String, Object> fields, Format format) {
+        Map<String, Object> paths = new LinkedHashMap<>();
+        fields.forEach((name, value) -> {
+            if (format == Format.COMPACT) {
+                paths.put(alias(name), value);
+            } else {
+                paths.put(name, value);
+                paths.put(alias(name), null);
+            }
+        });
+        return paths;
+    }
+
+    private static void put(Map<String, Object> content, Format format, String name, Object value) {
+        if (value != null) {
+            content.put(format == Format.COMPACT ? alias(name) : name, value);
+        }
+    }
+
+    private static Object read(Map<String, ?> content, String name) {
+        Object value = content.get(alias(name));
+        return value != null ? value : content.get(name);
+    }
+
+    private static String alias(String name) {
+        String alias = ALIASES.get(name);
+        if (alias == null) {
+            throw new IllegalArgumentException("Unknown field " + name);
+        }
+        return alias;
+    }
+}
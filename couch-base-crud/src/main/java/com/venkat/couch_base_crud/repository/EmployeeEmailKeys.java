@@ -0,0 +1,27 @@
+package com.venkat.couch_base_crud.repository;
+
+import com.couchbase.client.java.json.JsonObject;
+
+import java.util.Locale;
+
+//lookup documents keyed by normalized email, each one holds the id of the employee using that email
+final class EmployeeEmailKeys {
+
+    static final String KEY_PREFIX = "employee::email::";
+    static final String OWNER_FIELD = "employeeId";
+
+    private EmployeeEmailKeys() {
+    }
+
+    static String key(String email) {
+        return KEY_PREFIX + email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static JsonObject content(String employeeId) {
+        return JsonObject.create().put(OWNER_FIELD, employeeId);
+    }
+
+    static String owner(JsonObject content) {
+        return content.getString(OWNER_FIELD);
+    }
+}
@@ -0,0 +1,36 @@
+package com.venkat.couch_base_crud.repository;
+
+import com.couchbase.client.core.msg.kv.MutationToken;
+import com.couchbase.client.java.kv.MutationState;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+//newest mutation token per vbucket of the employee writes made through this instance,
+//at_plus queries wait for the index to reach them instead of for every pending mutation
+final class EmployeeMutationTokens {
+
+    private final Map<Short, MutationToken> tokens = new ConcurrentHashMap<>();
+
+    void record(Optional<MutationToken> token) {
+        token.ifPresent(t -> tokens.merge(t.partitionID(), t, EmployeeMutationTokens::newer));
+    }
+
+    //empty until something was written, then there is nothing to wait for
+    Optional<MutationState> state() {
+        if (tokens.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(MutationState.from(tokens.values().toArray(MutationToken[]::new)));
+    }
+
+    //after a failover the vbucket uuid changes and the sequence numbers start over, the later token wins
+    private static MutationToken newer(MutationToken current, MutationToken candidate) {
+        if (current.partitionUUID() == candidate.partitionUUID()
+                && Long.compareUnsigned(current.sequenceNumber(), candidate.sequenceNumber()) > 0) {
+            return current;
+        }
+        return candidate;
+    }
+}
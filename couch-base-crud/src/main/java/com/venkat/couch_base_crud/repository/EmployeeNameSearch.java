@@ -0,0 +1,21 @@
+package com.venkat.couch_base_crud.repository;
+
+import java.util.List;
+
+//prefix search on firstName and/or lastName, ordered by the first given name field and then id,
+//resuming after (afterName, afterId). fields only lists index held fields, so the query stays covered
+public record EmployeeNameSearch(String firstNamePrefix, String lastNamePrefix, List<String> fields,
+                                 String afterName, String afterId, int limit) {
+
+    public static final List<String> INDEXED_FIELDS = List.of("id", "firstName", "lastName", "email");
+
+    public String sortField() {
+        return firstNamePrefix != null ? "firstName" : "lastName";
+    }
+
+    //smallest string above every string starting with the prefix
+    static String prefixEnd(String prefix) {
+        int last = prefix.length() - 1;
+        return prefix.substring(0, last) + (char) (prefix.charAt(last) + 1);
+    }
+}
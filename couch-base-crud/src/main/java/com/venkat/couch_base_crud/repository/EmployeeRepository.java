@@ -1,14 +1,43 @@
 package com.venkat.couch_base_crud.repository;
 
 import com.venkat.couch_base_crud.model.Employee;
-import org.springframework.data.couchbase.repository.CouchbaseRepository;
+import org.springframework.data.couchbase.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.ListPagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+//the plain spring data contracts instead of CouchbaseRepository, whose getOperations and getEntityInformation
+//nothing here calls and InMemoryEmployeeRepository could not implement
 @Repository
-public interface EmployeeRepository extends CouchbaseRepository<Employee, String> {
+public interface EmployeeRepository extends ListCrudRepository<Employee, String>,
+        ListPagingAndSortingRepository<Employee, String>, EmployeeRepositoryCustom {
+    //spelled out instead of derived, a derived query filters on _class and the full field names only
+    @Query("#{#n1ql.selectEntity}" + EmployeeStatements.WHERE_EMAIL)
     Optional<Employee> findByEmail(String email);
+
+    @Query("#{#n1ql.selectEntity}" + EmployeeStatements.WHERE_FIRST_NAME)
     List<Employee> findByFirstName(String firstName);
+
+    //implemented by EmployeeRepositoryCustomImpl, declared again so calls resolve to the fragment
+    @Override
+    <S extends Employee> S save(S entity);
+
+    @Override
+    void deleteById(String id);
+
+    @Override
+    List<Employee> findAll();
+
+    @Override
+    long count();
+
+    @Override
+    List<Employee> findPageAfterId(String afterId, int limit);
+
+    @Override
+    Stream<Employee> streamAll();
 }
@@ -0,0 +1,69 @@
+package com.venkat.couch_base_crud.repository;
+
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.model.EmployeeConsistency;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+
+//key-value operations the derived queries of EmployeeRepository cannot express
+public interface EmployeeRepositoryCustom {
+
+    //claims the email with an atomic kv insert of its lookup document, false when the key already exists
+    boolean insertEmailKey(String email, String employeeId);
+
+    //id held by the email lookup document, it can be stale and must be checked against the employee
+    Optional<String> findEmailOwner(String email);
+
+    //hands a stale lookup document to a new owner, false when it no longer points to expectedOwner
+    boolean replaceEmailOwner(String email, String expectedOwner, String employeeId);
+
+    //removes the lookup document if it still points to the given employee
+    void removeEmailKey(String email, String employeeId);
+
+    //email of the employee from a sub-document lookup of that field alone, empty when the employee
+    //does not exist or has no email
+    Optional<String> findEmail(String id);
+
+    //writes only the given top level fields with a sub-document mutation, guarded by cas unless it is 0,
+    //returns the new cas or empty when there is no employee with the id
+    OptionalLong patchEmployee(String id, Map<String, Object> fields, long cas);
+
+    //cas of the employee from a kv exists, which does not transfer the document, empty when it does not exist
+    OptionalLong findVersion(String id);
+
+    //insert when the version is 0, cas checked replace otherwise, like the base save, but keeps the mutation token
+    //and writes the configured storage format
+    <S extends Employee> S save(S entity);
+
+    //kv remove that keeps the mutation token
+    void deleteById(String id);
+
+    //the base findAll and count filter on _class alone, these match both storage formats
+    List<Employee> findAll();
+
+    long count();
+
+    //keyset page ordered by document id, starting after the given id
+    List<Employee> findPageAfterId(String afterId, int limit);
+
+    //rows are pulled from the query result as the stream is consumed, caller must close it
+    Stream<Employee> streamAll();
+
+    //findAll, findPageAfterId and streamAll scanned at the given consistency
+    List<Employee> findAll(EmployeeConsistency consistency);
+
+    List<Employee> findPageAfterId(String afterId, int limit, EmployeeConsistency consistency);
+
+    Stream<Employee> streamAll(EmployeeConsistency consistency);
+
+    //covered index query, each row holds the requested fields plus id and the sort field
+    List<Map<String, Object>> searchByName(EmployeeNameSearch search, EmployeeConsistency consistency);
+
+    //runs the page and search statements once with arguments that match nothing, so their prepared
+    //statements are cached before the first request needs them
+    void prepareQueries();
+}
@@ -0,0 +1,324 @@
+package com.venkat.couch_base_crud.repository;
+
+import com.couchbase.client.core.error.CasMismatchException;
+import com.couchbase.client.core.error.DocumentExistsException;
+import com.couchbase.client.core.error.DocumentNotFoundException;
+import com.couchbase.client.java.Collection;
+import com.couchbase.client.core.msg.kv.DurabilityLevel;
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.kv.ExistsResult;
+import com.couchbase.client.java.kv.GetResult;
+import com.couchbase.client.java.kv.LookupInResult;
+import com.couchbase.client.java.kv.LookupInSpec;
+import com.couchbase.client.java.kv.MutateInOptions;
+import com.couchbase.client.java.kv.MutateInResult;
+import com.couchbase.client.java.kv.MutateInSpec;
+import com.couchbase.client.java.kv.MutationResult;
+import com.couchbase.client.java.query.QueryOptions;
+import com.couchbase.client.java.query.QueryScanConsistency;
+import com.couchbase.client.java.query.ReactiveQueryResult;
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.model.EmployeeConsistency;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.couchbase.CouchbaseClientFactory;
+import org.springframework.data.couchbase.core.CouchbaseTemplate;
+import org.springframework.data.couchbase.core.TemplateSupport;
+import org.springframework.data.couchbase.core.support.TemplateUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static com.couchbase.client.java.kv.InsertOptions.insertOptions;
+import static com.couchbase.client.java.kv.MutateInOptions.mutateInOptions;
+import static com.couchbase.client.java.query.QueryOptions.queryOptions;
+import static com.couchbase.client.java.kv.RemoveOptions.removeOptions;
+import static com.couchbase.client.java.kv.ReplaceOptions.replaceOptions;
+
+class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+    //sorts after every id and name, used where a query has to run but should find nothing
+    static final String LAST_ID = "\uffff";
+
+    private final CouchbaseClientFactory clientFactory;
+    private final TemplateSupport templateSupport;
+    private final EmployeeMutationTokens mutationTokens = new EmployeeMutationTokens();
+    //synchronous durability of the employee documents, NONE acknowledges once the active node has the write in memory
+    private final DurabilityLevel createDurability;
+    private final DurabilityLevel updateDurability;
+    private final DurabilityLevel deleteDurability;
+    //encoding of the documents written, both are read, see EmployeeDocuments
+    private final EmployeeDocuments.Format storageFormat;
+
+    EmployeeRepositoryCustomImpl(CouchbaseTemplate couchbaseTemplate,
+                                 @Value("${employee.durability.create:NONE}") DurabilityLevel createDurability,
+                                 @Value("${employee.durability.update:NONE}") DurabilityLevel updateDurability,
+                                 @Value("${employee.durability.delete:NONE}") DurabilityLevel deleteDurability,
+                                 @Value("${employee.storage.format:JSON}") EmployeeDocuments.Format storageFormat) {
+        this.clientFactory = couchbaseTemplate.getCouchbaseClientFactory();
+        this.templateSupport = couchbaseTemplate.support();
+        this.createDurability = createDurability;
+        this.updateDurability = updateDurability;
+        this.deleteDurability = deleteDurability;
+        this.storageFormat = storageFormat;
+    }
+
+    @Override
+    public boolean insertEmailKey(String email, String employeeId) {
+        return translate(() -> {
+            try {
+                collection().insert(EmployeeEmailKeys.key(email), EmployeeEmailKeys.content(employeeId));
+                return true;
+            } catch (DocumentExistsException e) {
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public Optional<String> findEmailOwner(String email) {
+        return translate(() -> findEmailKey(email).map(result -> EmployeeEmailKeys.owner(result.contentAsObject())));
+    }
+
+    @Override
+    public boolean replaceEmailOwner(String email, String expectedOwner, String employeeId) {
+        return translate(() -> {
+            Optional<GetResult> current = findEmailKey(email);
+            if (current.isEmpty() || !expectedOwner.equals(EmployeeEmailKeys.owner(current.get().contentAsObject()))) {
+                return false;
+            }
+            try {
+                collection().replace(EmployeeEmailKeys.key(email), EmployeeEmailKeys.content(employeeId),
+                        replaceOptions().cas(current.get().cas()));
+                return true;
+            } catch (CasMismatchException | DocumentNotFoundException e) {
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public void removeEmailKey(String email, String employeeId) {
+        translate(() -> {
+            Optional<GetResult> current = findEmailKey(email);
+            if (current.isPresent() && employeeId.equals(EmployeeEmailKeys.owner(current.get().contentAsObject()))) {
+                try {
+                    collection().remove(EmployeeEmailKeys.key(email), removeOptions().cas(current.get().cas()));
+                } catch (CasMismatchException | DocumentNotFoundException e) {
+                    //claimed by someone else in the meantime, leave it
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<String> findEmail(String id) {
+        List<LookupInSpec> specs = EmployeeDocuments.paths("email").stream()
+                .map(path -> (LookupInSpec) LookupInSpec.get(path))
+                .toList();
+        return translate(() -> {
+            try {
+                return email(collection().lookupIn(id, specs));
+            } catch (DocumentNotFoundException e) {
+                return Optional.empty();
+            }
+        });
+    }
+
+    @Override
+    public OptionalLong patchEmployee(String id, Map<String, Object> fields, long cas) {
+        List<MutateInSpec> specs = EmployeeDocuments.patch(fields, storageFormat).entrySet().stream()
+                .map(field -> (MutateInSpec) MutateInSpec.upsert(field.getKey(), field.getValue()))
+                .toList();
+        MutateInOptions options = mutateInOptions().durability(updateDurability);
+        if (cas != 0) {
+            options.cas(cas);
+        }
+        return translate(() -> {
+            try {
+                MutateInResult result = collection().mutateIn(id, specs, options);
+                mutationTokens.record(result.mutationToken());
+                return OptionalLong.of(result.cas());
+            } catch (DocumentNotFoundException e) {
+                return OptionalLong.empty();
+            }
+        });
+    }
+
+    @Override
+    public OptionalLong findVersion(String id) {
+        ExistsResult result = translate(() -> collection().exists(id));
+        return result.exists() ? OptionalLong.of(result.cas()) : OptionalLong.empty();
+    }
+
+    @Override
+    public <S extends Employee> S save(S entity) {
+        String id = entity.getId() != null ? entity.getId() : UUID.randomUUID().toString();
+        JsonObject content = JsonObject.from(EmployeeDocuments.encode(entity, storageFormat));
+        MutationResult result = translate(() -> entity.getVersion() == 0
+                ? collection().insert(id, content, insertOptions().durability(createDurability))
+                : collection().replace(id, content,
+                        replaceOptions().cas(entity.getVersion()).durability(updateDurability)));
+        mutationTokens.record(result.mutationToken());
+        entity.setId(id);
+        entity.setVersion(result.cas());
+        return entity;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        MutationResult result = translate(() -> collection().remove(id, removeOptions().durability(deleteDurability)));
+        mutationTokens.record(result.mutationToken());
+    }
+
+    @Override
+    public List<Employee> findAll() {
+        return findAll(EmployeeConsistency.NOT_BOUNDED);
+    }
+
+    @Override
+    public long count() {
+        return translate(() -> clientFactory.getCluster()
+                .query(EmployeeStatements.count(bucket()), optionsFor(EmployeeConsistency.NOT_BOUNDED))
+                .rowsAs(Long.class).get(0));
+    }
+
+    @Override
+    public List<Employee> findPageAfterId(String afterId, int limit) {
+        return findPageAfterId(afterId, limit, EmployeeConsistency.NOT_BOUNDED);
+    }
+
+    @Override
+    public Stream<Employee> streamAll() {
+        return streamAll(EmployeeConsistency.NOT_BOUNDED);
+    }
+
+    @Override
+    public List<Employee> findAll(EmployeeConsistency consistency) {
+        return translate(() -> clientFactory.getCluster()
+                .query(EmployeeStatements.selectEmployees(bucket()), optionsFor(consistency))
+                .rowsAsObject().stream()
+                .map(this::decode)
+                .toList());
+    }
+
+    @Override
+    public List<Employee> findPageAfterId(String afterId, int limit, EmployeeConsistency consistency) {
+        return translate(() -> clientFactory.getCluster()
+                .query(EmployeeStatements.selectPageAfterId(bucket()), optionsFor(consistency).parameters(JsonArray.from(afterId, limit)))
+                .rowsAsObject().stream()
+                .map(this::decode)
+                .toList());
+    }
+
+    @Override
+    public Stream<Employee> streamAll(EmployeeConsistency consistency) {
+        return clientFactory.getCluster().reactive()
+                .query(EmployeeStatements.selectEmployees(bucket()), optionsFor(consistency))
+                .flatMapMany(ReactiveQueryResult::rowsAsObject)
+                .map(this::decode)
+                .onErrorMap(RuntimeException.class, this::translateException)
+                .toStream();
+    }
+
+    @Override
+    public List<Map<String, Object>> searchByName(EmployeeNameSearch search, EmployeeConsistency consistency) {
+        JsonObject parameters = JsonObject.create().put("limit", search.limit());
+        if (search.firstNamePrefix() != null) {
+            parameters.put("firstName", search.firstNamePrefix())
+                    .put("firstNameEnd", EmployeeNameSearch.prefixEnd(search.firstNamePrefix()));
+        }
+        if (search.lastNamePrefix() != null) {
+            parameters.put("lastName", search.lastNamePrefix())
+                    .put("lastNameEnd", EmployeeNameSearch.prefixEnd(search.lastNamePrefix()));
+        }
+        if (search.afterId() != null) {
+            parameters.put("afterName", search.afterName()).put("afterId", search.afterId());
+        }
+        return translate(() -> clientFactory.getCluster()
+                .query(EmployeeStatements.searchByName(bucket(), search), optionsFor(consistency).parameters(parameters))
+                .rowsAsObject().stream()
+                .map(JsonObject::toMap)
+                .toList());
+    }
+
+    @Override
+    public void prepareQueries() {
+        findPageAfterId(LAST_ID, 1, EmployeeConsistency.NOT_BOUNDED);
+        //the default projection, the variant most searches use
+        searchByName(new EmployeeNameSearch(LAST_ID, null, EmployeeNameSearch.INDEXED_FIELDS, null, null, 1),
+                EmployeeConsistency.NOT_BOUNDED);
+        searchByName(new EmployeeNameSearch(null, LAST_ID, EmployeeNameSearch.INDEXED_FIELDS, null, null, 1),
+                EmployeeConsistency.NOT_BOUNDED);
+    }
+
+    //done here rather than through the repository query methods, spring data sets a scan consistency on
+    //every query it builds and the sdk drops consistentWith when that happens
+    //adhoc false: the sdk prepares each statement once and then only sends the plan name and the parameters
+    private QueryOptions optionsFor(EmployeeConsistency consistency) {
+        QueryOptions options = queryOptions().adhoc(false);
+        if (consistency == EmployeeConsistency.AT_PLUS) {
+            mutationTokens.state().ifPresent(options::consistentWith);
+        } else if (consistency == EmployeeConsistency.REQUEST_PLUS) {
+            options.scanConsistency(QueryScanConsistency.REQUEST_PLUS);
+        }
+        return options;
+    }
+
+    private Employee decode(JsonObject row) {
+        String id = row.getString(TemplateUtils.SELECT_ID);
+        Long cas = row.getLong(TemplateUtils.SELECT_CAS);
+        row.removeKey(TemplateUtils.SELECT_ID);
+        row.removeKey(TemplateUtils.SELECT_CAS);
+        return templateSupport.decodeEntity(id, row.toString(), cas, Employee.class, null, null, null, null);
+    }
+
+    private String bucket() {
+        return "`" + clientFactory.getBucket().name() + "`";
+    }
+
+    //first of the email paths that is present
+    static Optional<String> email(LookupInResult result) {
+        for (int i = 0; i < EmployeeDocuments.paths("email").size(); i++) {
+            if (result.exists(i)) {
+                return Optional.ofNullable(result.contentAs(i, String.class));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<GetResult> findEmailKey(String email) {
+        try {
+            return Optional.of(collection().get(EmployeeEmailKeys.key(email)));
+        } catch (DocumentNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Collection collection() {
+        return clientFactory.getDefaultCollection();
+    }
+
+    //surface sdk failures as spring DataAccessExceptions, like the generated repository methods do
+    private <T> T translate(Supplier<T> operation) {
+        try {
+            return operation.get();
+        } catch (RuntimeException e) {
+            throw translateException(e);
+        }
+    }
+
+    private RuntimeException translateException(RuntimeException e) {
+        PersistenceExceptionTranslator translator = clientFactory.getExceptionTranslator();
+        DataAccessException translated = translator.translateExceptionIfPossible(e);
+        return translated != null ? translated : e;
+    }
+}
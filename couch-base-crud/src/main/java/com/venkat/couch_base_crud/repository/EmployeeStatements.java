@@ -0,0 +1,74 @@
+package com.venkat.couch_base_crud.repository;
+
+import org.springframework.data.couchbase.core.support.TemplateUtils;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+//the n1ql statements both employee repositories send, EmployeeIndexManager explains these same strings so the
+//plans it checks are the plans the requests get. bucket is the backquoted bucket name
+public final class EmployeeStatements {
+
+    //where clauses of the @Query methods, which put #{#n1ql.selectEntity} in front
+    public static final String WHERE_EMPLOYEE = " WHERE " + EmployeeDocuments.FILTER;
+    public static final String WHERE_EMAIL = WHERE_EMPLOYEE + " AND " + EmployeeDocuments.EMAIL + " = $1";
+    public static final String WHERE_FIRST_NAME = WHERE_EMPLOYEE + " AND " + EmployeeDocuments.FIRST_NAME + " = $1";
+
+    private EmployeeStatements() {
+    }
+
+    //findAll and streamAll, same projection as #{#n1ql.selectEntity}
+    public static String selectEmployees(String bucket) {
+        return "SELECT META(" + bucket + ").id AS " + TemplateUtils.SELECT_ID
+                + ", META(" + bucket + ").cas AS " + TemplateUtils.SELECT_CAS
+                + ", " + bucket + ".* FROM " + bucket + WHERE_EMPLOYEE;
+    }
+
+    //findByEmail and findByFirstName as spring data expands them
+    public static String selectByEmail(String bucket) {
+        return selectEmployees(bucket).replace(WHERE_EMPLOYEE, WHERE_EMAIL);
+    }
+
+    public static String selectByFirstName(String bucket) {
+        return selectEmployees(bucket).replace(WHERE_EMPLOYEE, WHERE_FIRST_NAME);
+    }
+
+    //keyset page ordered by document id, $1 is the id to start after and $2 the page size
+    public static String selectPageAfterId(String bucket) {
+        return selectEmployees(bucket) + " AND META(" + bucket + ").id > $1 ORDER BY META(" + bucket + ").id LIMIT $2";
+    }
+
+    public static String count(String bucket) {
+        return "SELECT RAW COUNT(*) FROM " + bucket + WHERE_EMPLOYEE;
+    }
+
+    //prefix search with named parameters $firstName, $firstNameEnd, $lastName, $lastNameEnd, $afterName,
+    //$afterId and $limit, only the ones the search uses. the prefixes and cursor only matter by being set
+    public static String searchByName(String bucket, EmployeeNameSearch search) {
+        Set<String> fields = new LinkedHashSet<>(search.fields());
+        fields.add("id");
+        fields.add(search.sortField());
+        String sortExpression = EmployeeDocuments.field(search.sortField());
+        StringBuilder statement = new StringBuilder("SELECT ")
+                .append(fields.stream()
+                        .map(field -> field.equals("id") ? "META(" + bucket + ").id AS id"
+                                : EmployeeDocuments.field(field) + " AS " + field)
+                        .collect(Collectors.joining(", ")))
+                .append(" FROM ").append(bucket).append(WHERE_EMPLOYEE);
+        if (search.firstNamePrefix() != null) {
+            statement.append(" AND ").append(EmployeeDocuments.FIRST_NAME).append(" >= $firstName AND ")
+                    .append(EmployeeDocuments.FIRST_NAME).append(" < $firstNameEnd");
+        }
+        if (search.lastNamePrefix() != null) {
+            statement.append(" AND ").append(EmployeeDocuments.LAST_NAME).append(" >= $lastName AND ")
+                    .append(EmployeeDocuments.LAST_NAME).append(" < $lastNameEnd");
+        }
+        if (search.afterId() != null) {
+            statement.append(" AND (").append(sortExpression).append(" > $afterName OR (").append(sortExpression)
+                    .append(" = $afterName AND META(").append(bucket).append(").id > $afterId))");
+        }
+        return statement.append(" ORDER BY ").append(sortExpression).append(", META(").append(bucket)
+                .append(").id LIMIT $limit").toString();
+    }
+}
@@ -0,0 +1,319 @@
+package com.venkat.couch_base_crud.repository;
+
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.model.EmployeeConsistency;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+//map backed EmployeeRepository for running the app without a cluster (profile inmemory).
+//keeps the couchbase write semantics the service relies on: version 0 saves are inserts, other saves
+//are cas checked replaces, and failures surface as the same DataAccessExceptions the sdk translator gives.
+//every call waits kv-latency, or query-latency for what is a n1ql query against couchbase
+@Repository
+@Profile("inmemory")
+public class InMemoryEmployeeRepository implements EmployeeRepository {
+
+    private final ConcurrentSkipListMap<String, Employee> employees = new ConcurrentSkipListMap<>();
+    private final Map<String, String> emailKeys = new ConcurrentHashMap<>();
+    private final AtomicLong casSequence = new AtomicLong();
+    private final long kvLatencyNanos;
+    private final long queryLatencyNanos;
+
+    public InMemoryEmployeeRepository(@Value("${employee.in-memory.kv-latency:0ms}") Duration kvLatency,
+                                      @Value("${employee.in-memory.query-latency:0ms}") Duration queryLatency) {
+        this.kvLatencyNanos = kvLatency.toNanos();
+        this.queryLatencyNanos = queryLatency.toNanos();
+    }
+
+    @Override
+    public Optional<Employee> findByEmail(String email) {
+        pause(queryLatencyNanos);
+        return employees.values().stream().filter(e -> email.equals(e.getEmail())).findFirst().map(this::copy);
+    }
+
+    @Override
+    public List<Employee> findByFirstName(String firstName) {
+        pause(queryLatencyNanos);
+        return employees.values().stream().filter(e -> firstName.equals(e.getFirstName())).map(this::copy).toList();
+    }
+
+    @Override
+    public List<Employee> findPageAfterId(String afterId, int limit) {
+        pause(queryLatencyNanos);
+        return employees.tailMap(afterId, false).values().stream().limit(limit).map(this::copy).toList();
+    }
+
+    @Override
+    public Stream<Employee> streamAll() {
+        pause(queryLatencyNanos);
+        return employees.values().stream().map(this::copy);
+    }
+
+    //writes are visible to every query at once, so each consistency reads the same
+    @Override
+    public List<Employee> findAll(EmployeeConsistency consistency) {
+        return findAll();
+    }
+
+    @Override
+    public List<Employee> findPageAfterId(String afterId, int limit, EmployeeConsistency consistency) {
+        return findPageAfterId(afterId, limit);
+    }
+
+    @Override
+    public Stream<Employee> streamAll(EmployeeConsistency consistency) {
+        return streamAll();
+    }
+
+    @Override
+    public List<Map<String, Object>> searchByName(EmployeeNameSearch search, EmployeeConsistency consistency) {
+        pause(queryLatencyNanos);
+        Function<Employee, String> sortKey = search.firstNamePrefix() != null ? Employee::getFirstName : Employee::getLastName;
+        return employees.values().stream()
+                .filter(e -> startsWith(e.getFirstName(), search.firstNamePrefix()))
+                .filter(e -> startsWith(e.getLastName(), search.lastNamePrefix()))
+                .filter(e -> search.afterId() == null || sortKey.apply(e).compareTo(search.afterName()) > 0
+                        || (sortKey.apply(e).equals(search.afterName()) && e.getId().compareTo(search.afterId()) > 0))
+                .sorted(Comparator.comparing(sortKey).thenComparing(Employee::getId))
+                .limit(search.limit())
+                .map(this::indexedFields)
+                .toList();
+    }
+
+    //nothing is prepared in memory
+    @Override
+    public void prepareQueries() {
+    }
+
+    @Override
+    public <S extends Employee> S save(S entity) {
+        pause(kvLatencyNanos);
+        if (entity.getId() == null) {
+            entity.setId(UUID.randomUUID().toString());
+        }
+        long expected = entity.getVersion();
+        long cas = casSequence.incrementAndGet();
+        employees.compute(entity.getId(), (id, current) -> {
+            if (expected == 0 && current != null) {
+                throw new DuplicateKeyException("Document with the given id already exists");
+            }
+            if (expected != 0 && current == null) {
+                throw new DataRetrievalFailureException("Document with the given id not found");
+            }
+            if (expected != 0 && current.getVersion() != expected) {
+                throw new OptimisticLockingFailureException("CAS mismatch for document " + id);
+            }
+            Employee stored = copy(entity);
+            stored.setVersion(cas);
+            return stored;
+        });
+        entity.setVersion(cas);
+        return entity;
+    }
+
+    @Override
+    public <S extends Employee> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public Optional<Employee> findById(String id) {
+        pause(kvLatencyNanos);
+        return Optional.ofNullable(employees.get(id)).map(this::copy);
+    }
+
+    @Override
+    public Optional<String> findEmail(String id) {
+        pause(kvLatencyNanos);
+        return Optional.ofNullable(employees.get(id)).map(Employee::getEmail);
+    }
+
+    @Override
+    public OptionalLong findVersion(String id) {
+        pause(kvLatencyNanos);
+        Employee employee = employees.get(id);
+        return employee == null ? OptionalLong.empty() : OptionalLong.of(employee.getVersion());
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        pause(kvLatencyNanos);
+        return employees.containsKey(id);
+    }
+
+    @Override
+    public List<Employee> findAll() {
+        pause(queryLatencyNanos);
+        return employees.values().stream().map(this::copy).toList();
+    }
+
+    @Override
+    public List<Employee> findAll(Sort sort) {
+        return findAll();
+    }
+
+    @Override
+    public Page<Employee> findAll(Pageable pageable) {
+        List<Employee> all = findAll();
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        int to = Math.min(from + pageable.getPageSize(), all.size());
+        return new PageImpl<>(all.subList(from, to), pageable, all.size());
+    }
+
+    @Override
+    public List<Employee> findAllById(Iterable<String> ids) {
+        pause(kvLatencyNanos);
+        return StreamSupport.stream(ids.spliterator(), false)
+                .map(employees::get)
+                .filter(Objects::nonNull)
+                .map(this::copy)
+                .toList();
+    }
+
+    @Override
+    public long count() {
+        pause(queryLatencyNanos);
+        return employees.size();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        pause(kvLatencyNanos);
+        if (employees.remove(id) == null) {
+            throw new DataRetrievalFailureException("Document with the given id not found");
+        }
+    }
+
+    @Override
+    public void delete(Employee entity) {
+        deleteById(entity.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        pause(kvLatencyNanos);
+        ids.forEach(employees::remove);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Employee> entities) {
+        pause(kvLatencyNanos);
+        entities.forEach(entity -> employees.remove(entity.getId()));
+    }
+
+    @Override
+    public void deleteAll() {
+        pause(queryLatencyNanos);
+        employees.clear();
+        emailKeys.clear();
+    }
+
+    @Override
+    public boolean insertEmailKey(String email, String employeeId) {
+        pause(kvLatencyNanos);
+        return emailKeys.putIfAbsent(EmployeeEmailKeys.key(email), employeeId) == null;
+    }
+
+    @Override
+    public Optional<String> findEmailOwner(String email) {
+        pause(kvLatencyNanos);
+        return Optional.ofNullable(emailKeys.get(EmployeeEmailKeys.key(email)));
+    }
+
+    @Override
+    public boolean replaceEmailOwner(String email, String expectedOwner, String employeeId) {
+        pause(kvLatencyNanos);
+        return emailKeys.replace(EmployeeEmailKeys.key(email), expectedOwner, employeeId);
+    }
+
+    @Override
+    public void removeEmailKey(String email, String employeeId) {
+        pause(kvLatencyNanos);
+        emailKeys.remove(EmployeeEmailKeys.key(email), employeeId);
+    }
+
+    @Override
+    public OptionalLong patchEmployee(String id, Map<String, Object> fields, long cas) {
+        pause(kvLatencyNanos);
+        long newCas = casSequence.incrementAndGet();
+        Employee patched = employees.computeIfPresent(id, (key, current) -> {
+            if (cas != 0 && current.getVersion() != cas) {
+                throw new OptimisticLockingFailureException("CAS mismatch for document " + key);
+            }
+            Employee next = copy(current);
+            fields.forEach((field, value) -> apply(next, field, value));
+            next.setVersion(newCas);
+            return next;
+        });
+        return patched == null ? OptionalLong.empty() : OptionalLong.of(newCas);
+    }
+
+    private void apply(Employee employee, String field, Object value) {
+        switch (field) {
+            case "firstName" -> employee.setFirstName((String) value);
+            case "lastName" -> employee.setLastName((String) value);
+            case "email" -> employee.setEmail((String) value);
+            case "address" -> employee.setAddress(((List<?>) value).toArray(String[]::new));
+            default -> throw new IllegalArgumentException("Unknown field " + field);
+        }
+    }
+
+    private static boolean startsWith(String value, String prefix) {
+        return prefix == null || (value != null && value.startsWith(prefix));
+    }
+
+    private Map<String, Object> indexedFields(Employee employee) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", employee.getId());
+        row.put("firstName", employee.getFirstName());
+        row.put("lastName", employee.getLastName());
+        row.put("email", employee.getEmail());
+        return row;
+    }
+
+    private Employee copy(Employee employee) {
+        Employee copy = new Employee(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                employee.getEmail(), employee.getAddress() == null ? null : employee.getAddress().clone());
+        copy.setVersion(employee.getVersion());
+        return copy;
+    }
+
+    private void pause(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
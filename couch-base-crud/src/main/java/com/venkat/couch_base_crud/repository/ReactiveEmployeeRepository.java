@@ -0,0 +1,28 @@
+package com.venkat.couch_base_crud.repository;
+
+import com.venkat.couch_base_crud.model.Employee;
+import org.springframework.data.couchbase.repository.Query;
+import org.springframework.data.couchbase.repository.ReactiveCouchbaseRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveEmployeeRepository extends ReactiveCouchbaseRepository<Employee, String>, ReactiveEmployeeRepositoryCustom {
+    //same statements as EmployeeRepository, matching both storage formats
+    @Query("#{#n1ql.selectEntity}" + EmployeeStatements.WHERE_EMAIL)
+    Mono<Employee> findByEmail(String email);
+
+    @Query("#{#n1ql.selectEntity}" + EmployeeStatements.WHERE_FIRST_NAME)
+    Flux<Employee> findByFirstName(String firstName);
+
+    //implemented by ReactiveEmployeeRepositoryCustomImpl, declared again so calls resolve to the fragment
+    @Override
+    <S extends Employee> Mono<S> save(S entity);
+
+    @Override
+    Flux<Employee> findAll();
+
+    @Override
+    Mono<Long> count();
+}
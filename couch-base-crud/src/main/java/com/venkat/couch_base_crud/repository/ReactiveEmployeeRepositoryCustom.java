@@ -0,0 +1,28 @@
+package com.venkat.couch_base_crud.repository;
+
+import com.venkat.couch_base_crud.model.Employee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//non-blocking counterpart of EmployeeRepositoryCustom, same lookup documents
+public interface ReactiveEmployeeRepositoryCustom {
+
+    Mono<Boolean> insertEmailKey(String email, String employeeId);
+
+    Mono<String> findEmailOwner(String email);
+
+    Mono<Boolean> replaceEmailOwner(String email, String expectedOwner, String employeeId);
+
+    Mono<Void> removeEmailKey(String email, String employeeId);
+
+    //email from a sub-document lookup, empty when the employee does not exist or has no email
+    Mono<String> findEmail(String id);
+
+    //insert when the version is 0, cas checked replace otherwise, in the configured storage format
+    <S extends Employee> Mono<S> save(S entity);
+
+    //the base findAll and count filter on _class alone, these match both storage formats
+    Flux<Employee> findAll();
+
+    Mono<Long> count();
+}
@@ -0,0 +1,143 @@
+package com.venkat.couch_base_crud.repository;
+
+import com.couchbase.client.core.error.CasMismatchException;
+import com.couchbase.client.core.error.DocumentExistsException;
+import com.couchbase.client.core.error.DocumentNotFoundException;
+import com.couchbase.client.java.ReactiveCollection;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.kv.GetResult;
+import com.couchbase.client.java.kv.LookupInSpec;
+import com.couchbase.client.java.query.ReactiveQueryResult;
+import com.venkat.couch_base_crud.model.Employee;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.couchbase.CouchbaseClientFactory;
+import org.springframework.data.couchbase.core.ReactiveCouchbaseTemplate;
+import org.springframework.data.couchbase.core.ReactiveTemplateSupport;
+import org.springframework.data.couchbase.core.support.TemplateUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.couchbase.client.java.kv.RemoveOptions.removeOptions;
+import static com.couchbase.client.java.kv.ReplaceOptions.replaceOptions;
+
+class ReactiveEmployeeRepositoryCustomImpl implements ReactiveEmployeeRepositoryCustom {
+
+    private final CouchbaseClientFactory clientFactory;
+    private final ReactiveTemplateSupport templateSupport;
+    private final EmployeeDocuments.Format storageFormat;
+
+    ReactiveEmployeeRepositoryCustomImpl(ReactiveCouchbaseTemplate reactiveCouchbaseTemplate,
+                                         @Value("${employee.storage.format:JSON}") EmployeeDocuments.Format storageFormat) {
+        this.clientFactory = reactiveCouchbaseTemplate.getCouchbaseClientFactory();
+        this.templateSupport = reactiveCouchbaseTemplate.support();
+        this.storageFormat = storageFormat;
+    }
+
+    @Override
+    public <S extends Employee> Mono<S> save(S entity) {
+        String id = entity.getId() != null ? entity.getId() : UUID.randomUUID().toString();
+        JsonObject content = JsonObject.from(EmployeeDocuments.encode(entity, storageFormat));
+        return translate(Mono.defer(() -> entity.getVersion() == 0
+                        ? collection().insert(id, content)
+                        : collection().replace(id, content, replaceOptions().cas(entity.getVersion())))
+                .map(result -> {
+                    entity.setId(id);
+                    entity.setVersion(result.cas());
+                    return entity;
+                }));
+    }
+
+    @Override
+    public Flux<Employee> findAll() {
+        return clientFactory.getCluster().reactive().query(EmployeeStatements.selectEmployees(bucket()))
+                .flatMapMany(ReactiveQueryResult::rowsAsObject)
+                .concatMap(this::decode)
+                .onErrorMap(RuntimeException.class, this::translateException);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return translate(clientFactory.getCluster().reactive().query(EmployeeStatements.count(bucket()))
+                .flatMap(result -> result.rowsAs(Long.class).next()));
+    }
+
+    @Override
+    public Mono<Boolean> insertEmailKey(String email, String employeeId) {
+        return translate(Mono.defer(() -> collection()
+                .insert(EmployeeEmailKeys.key(email), EmployeeEmailKeys.content(employeeId))
+                .thenReturn(true)
+                .onErrorReturn(DocumentExistsException.class, false)));
+    }
+
+    @Override
+    public Mono<String> findEmailOwner(String email) {
+        return translate(findEmailKey(email).map(result -> EmployeeEmailKeys.owner(result.contentAsObject())));
+    }
+
+    @Override
+    public Mono<Boolean> replaceEmailOwner(String email, String expectedOwner, String employeeId) {
+        return translate(findEmailKey(email)
+                .filter(current -> expectedOwner.equals(EmployeeEmailKeys.owner(current.contentAsObject())))
+                .flatMap(current -> collection()
+                        .replace(EmployeeEmailKeys.key(email), EmployeeEmailKeys.content(employeeId),
+                                replaceOptions().cas(current.cas()))
+                        .thenReturn(true)
+                        .onErrorReturn(e -> e instanceof CasMismatchException || e instanceof DocumentNotFoundException, false))
+                .defaultIfEmpty(false));
+    }
+
+    @Override
+    public Mono<Void> removeEmailKey(String email, String employeeId) {
+        return translate(findEmailKey(email)
+                .filter(current -> employeeId.equals(EmployeeEmailKeys.owner(current.contentAsObject())))
+                .flatMap(current -> collection()
+                        .remove(EmployeeEmailKeys.key(email), removeOptions().cas(current.cas()))
+                        .onErrorResume(e -> e instanceof CasMismatchException || e instanceof DocumentNotFoundException,
+                                e -> Mono.empty()))
+                .then());
+    }
+
+    @Override
+    public Mono<String> findEmail(String id) {
+        List<LookupInSpec> specs = EmployeeDocuments.paths("email").stream()
+                .map(path -> (LookupInSpec) LookupInSpec.get(path))
+                .toList();
+        return translate(Mono.defer(() -> collection().lookupIn(id, specs))
+                .flatMap(result -> Mono.justOrEmpty(EmployeeRepositoryCustomImpl.email(result)))
+                .onErrorResume(DocumentNotFoundException.class, e -> Mono.empty()));
+    }
+
+    private Mono<Employee> decode(JsonObject row) {
+        String id = row.getString(TemplateUtils.SELECT_ID);
+        Long cas = row.getLong(TemplateUtils.SELECT_CAS);
+        row.removeKey(TemplateUtils.SELECT_ID);
+        row.removeKey(TemplateUtils.SELECT_CAS);
+        return templateSupport.decodeEntity(id, row.toString(), cas, Employee.class, null, null, null, null);
+    }
+
+    private String bucket() {
+        return "`" + clientFactory.getBucket().name() + "`";
+    }
+
+    private Mono<GetResult> findEmailKey(String email) {
+        return Mono.defer(() -> collection().get(EmployeeEmailKeys.key(email)))
+                .onErrorResume(DocumentNotFoundException.class, e -> Mono.empty());
+    }
+
+    private ReactiveCollection collection() {
+        return clientFactory.getDefaultCollection().reactive();
+    }
+
+    private <T> Mono<T> translate(Mono<T> operation) {
+        return operation.onErrorMap(RuntimeException.class, this::translateException);
+    }
+
+    private RuntimeException translateException(RuntimeException e) {
+        DataAccessException translated = clientFactory.getExceptionTranslator().translateExceptionIfPossible(e);
+        return translated != null ? translated : e;
+    }
+}
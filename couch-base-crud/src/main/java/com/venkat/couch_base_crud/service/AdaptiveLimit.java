@@ -0,0 +1,86 @@
+package com.venkat.couch_base_crud.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+//gradient concurrency limit. each completed request compares its latency with the long term average:
+//while it is within rttTolerance of it the limit grows by about sqrt(limit), once requests take longer
+//the limit shrinks with the ratio, at most by half per sample. requests beyond the limit are refused at once
+final class AdaptiveLimit {
+
+    //samples the long term average spans, a plain average of the first ones until then
+    private static final int LONG_WINDOW = 600;
+    //share of every new limit that is taken over, damps single slow or fast samples
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private final ReentrantLock sampleLock = new ReentrantLock();
+    //guarded by sampleLock
+    private double longRttNanos;
+    private long samples;
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double rttTolerance) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Concurrency limits need 1 <= min-limit <= max-limit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.limit = clamp(initialLimit);
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    //latency of a request that held a permit, which it gives back
+    void release(long rttNanos) {
+        int before = inFlight.getAndDecrement();
+        sample(Math.max(1, rttNanos), before);
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private void sample(long rttNanos, int inFlightBefore) {
+        sampleLock.lock();
+        try {
+            samples++;
+            longRttNanos += (rttNanos - longRttNanos) * (samples < LONG_WINDOW ? 1.0 / samples : 2.0 / (LONG_WINDOW + 1));
+            //after a slow spell the average would take the whole window to come back down
+            if (longRttNanos / rttNanos > 2) {
+                longRttNanos *= 0.95;
+            }
+            //far below the limit the latency says nothing about it, do not let it grow unused
+            if (inFlightBefore < limit / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / rttNanos));
+            double next = limit * gradient + Math.sqrt(limit);
+            limit = clamp(limit * (1 - SMOOTHING) + next * SMOOTHING);
+        } finally {
+            sampleLock.unlock();
+        }
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
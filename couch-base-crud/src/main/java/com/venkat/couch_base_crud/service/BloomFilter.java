@@ -0,0 +1,90 @@
+package com.venkat.couch_base_crud.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//fixed size bloom filter of strings, sized for an expected number of items and false positive rate.
+//add and mightContain are safe to call concurrently, an add is visible to every mightContain after it
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+    private final AtomicLong items = new AtomicLong();
+
+    BloomFilter(long expectedItems, double falsePositiveRate) {
+        if (expectedItems <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Expected items must be positive and the false positive rate between 0 and 1");
+        }
+        long optimalBits = (long) Math.ceil(-expectedItems * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray(Math.toIntExact((optimalBits + 63) / 64));
+        this.bits = words.length() * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedItems * Math.log(2)));
+    }
+
+    void add(String value) {
+        long first = mix(fnv(value));
+        long second = mix(first ^ 0x9e3779b97f4a7c15L) | 1;
+        boolean changed = false;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(first + i * second, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            if ((current & mask) == 0) {
+                words.getAndAccumulate(word, mask, (left, right) -> left | right);
+                changed = true;
+            }
+        }
+        //values already held, or whose bits all collide, are not counted again
+        if (changed) {
+            items.incrementAndGet();
+        }
+    }
+
+    //false means the value was never added, true means it probably was
+    boolean mightContain(String value) {
+        long first = mix(fnv(value));
+        long second = mix(first ^ 0x9e3779b97f4a7c15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(first + i * second, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long items() {
+        return items.get();
+    }
+
+    long memoryBytes() {
+        return bits / 8;
+    }
+
+    int hashes() {
+        return hashes;
+    }
+
+    //(1 - e^(-k n / m))^k for the items added so far
+    double falsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashes * (double) items.get() / bits), hashes);
+    }
+
+    private static long fnv(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    //murmur3 finalizer, spreads the fnv hash over all 64 bits
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
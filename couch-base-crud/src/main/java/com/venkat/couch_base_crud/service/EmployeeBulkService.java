@@ -0,0 +1,237 @@
+package com.venkat.couch_base_crud.service;
+
+import com.venkat.couch_base_crud.exception.CouchbaseOperationException;
+import com.venkat.couch_base_crud.exception.EmployeeAlreadyExistsException;
+import com.venkat.couch_base_crud.exception.EmployeeNotFoundException;
+import com.venkat.couch_base_crud.exception.EmployeeOverloadedException;
+import com.venkat.couch_base_crud.exception.EmployeeUpdateConflictException;
+import com.venkat.couch_base_crud.exception.EmployeeVersionConflictException;
+import com.venkat.couch_base_crud.exception.InvalidEmployeeDataException;
+import com.venkat.couch_base_crud.model.BulkItemResult;
+import com.venkat.couch_base_crud.model.BulkResult;
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.service.EmployeeConcurrencyLimiter.Bulkhead;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+//runs many single employee operations concurrently so their kv requests are pipelined,
+//at most inFlight of them are outstanding and every item gets its own result. with the concurrency limit
+//the window also stays within the current kv-write limit, so a bulk request never sheds its own items.
+//items run on a pool of their own, not the application task executor that also serves /v1/stream
+@Service
+public class EmployeeBulkService {
+
+    private final EmployeeService employeeService;
+    private final Executor taskExecutor;
+    private final int inFlight;
+    //null unless employee.concurrency-limit.enabled
+    private final EmployeeConcurrencyLimiter concurrencyLimiter;
+
+    public EmployeeBulkService(EmployeeService employeeService, Executor taskExecutor, int inFlight) {
+        this(employeeService, taskExecutor, inFlight, null);
+    }
+
+    @Autowired
+    public EmployeeBulkService(EmployeeService employeeService,
+                               @Value("${employee.bulk.in-flight:64}") int inFlight,
+                               @Value("${employee.bulk.threads:64}") int threads,
+                               @Value("${employee.bulk.queue-capacity:1024}") int queueCapacity,
+                               @Nullable EmployeeConcurrencyLimiter concurrencyLimiter) {
+        this(employeeService, bulkExecutor(threads, queueCapacity), inFlight, concurrencyLimiter);
+    }
+
+    EmployeeBulkService(EmployeeService employeeService, Executor taskExecutor, int inFlight,
+                        @Nullable EmployeeConcurrencyLimiter concurrencyLimiter) {
+        if (inFlight < 1) {
+            throw new IllegalArgumentException("employee.bulk.in-flight must be at least 1");
+        }
+        this.employeeService = employeeService;
+        this.taskExecutor = taskExecutor;
+        this.inFlight = inFlight;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    //fixed threads and a bounded queue: the windows of all running bulk requests share them, an item
+    //that finds the queue full gets a 503 instead of waiting behind every other one
+    private static ExecutorService bulkExecutor(int threads, int queueCapacity) {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("employee.bulk.threads and queue-capacity must be at least 1");
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "employee-bulk-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    //items already running finish, their requests are being answered
+    @PreDestroy
+    void shutdown() {
+        if (taskExecutor instanceof ExecutorService pool) {
+            pool.shutdown();
+        }
+    }
+
+    public BulkResult createEmployees(Iterator<Employee> employees) {
+        return execute(employees, employee -> employeeService.createEmployee(employee).getId(), HttpStatus.CREATED);
+    }
+
+    public BulkResult updateEmployees(Iterator<Employee> employees) {
+        return execute(employees, employee -> {
+            if (!StringUtils.hasText(employee.getId())) {
+                throw new InvalidEmployeeDataException("Employee id is required");
+            }
+            return employeeService.updateEmployee(employee.getId(), employee).getId();
+        }, HttpStatus.OK);
+    }
+
+    public BulkResult deleteEmployees(Iterator<String> ids) {
+        return execute(ids, id -> {
+            employeeService.deleteEmployee(id);
+            return id;
+        }, HttpStatus.NO_CONTENT);
+    }
+
+    //items are pulled lazily, so a streamed request body is only read as fast as the writes complete
+    private <T> BulkResult execute(Iterator<T> items, Function<T, String> operation, HttpStatus successStatus) {
+        Window window = new Window(windowSize());
+        List<CompletableFuture<BulkItemResult>> pending = new ArrayList<>();
+        int index = 0;
+        while (true) {
+            T item;
+            try {
+                if (!items.hasNext()) {
+                    break;
+                }
+                item = items.next();
+            } catch (RuntimeException e) {
+                //a malformed line in a streamed body cannot be skipped, the items before it keep their results
+                pending.add(CompletableFuture.completedFuture(new BulkItemResult(index, null,
+                        HttpStatus.BAD_REQUEST.value(), "Unreadable bulk item at index " + index
+                        + ", the items after it were not read")));
+                break;
+            }
+            int position = index++;
+            window.acquire();
+            CompletableFuture<BulkItemResult> result;
+            try {
+                result = CompletableFuture.supplyAsync(() -> operation.apply(item), taskExecutor)
+                        .handle((id, ex) -> ex == null
+                                ? new BulkItemResult(position, id, successStatus.value(), null)
+                                : failure(position, item, ex));
+            } catch (RejectedExecutionException e) {
+                result = CompletableFuture.completedFuture(failure(position, item, new EmployeeOverloadedException(
+                        "Too many bulk items queued, retry later", 1)));
+            } catch (RuntimeException e) {
+                result = CompletableFuture.completedFuture(failure(position, item, e));
+            }
+            pending.add(result.whenComplete((r, ex) -> window.release()));
+        }
+
+        List<BulkItemResult> results = new ArrayList<>(pending.size());
+        int failed = 0;
+        for (CompletableFuture<BulkItemResult> future : pending) {
+            BulkItemResult result = future.join();
+            if (result.getError() != null) {
+                failed++;
+            }
+            results.add(result);
+        }
+        return new BulkResult(results.size() - failed, failed, results);
+    }
+
+    //every bulk operation takes a kv-write permit per item, read again for each item as the limit adapts
+    private IntSupplier windowSize() {
+        return concurrencyLimiter == null
+                ? () -> inFlight
+                : () -> Math.min(inFlight, concurrencyLimiter.limit(Bulkhead.KV_WRITE));
+    }
+
+    private BulkItemResult failure(int position, Object item, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        String id = item instanceof Employee employee ? employee.getId() : (String) item;
+        return new BulkItemResult(position, id, statusOf(cause).value(), cause.getMessage());
+    }
+
+    private HttpStatus statusOf(Throwable ex) {
+        if (ex instanceof EmployeeNotFoundException) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (ex instanceof EmployeeAlreadyExistsException || ex instanceof EmployeeUpdateConflictException) {
+            return HttpStatus.CONFLICT;
+        }
+        if (ex instanceof EmployeeVersionConflictException) {
+            return HttpStatus.PRECONDITION_FAILED;
+        }
+        if (ex instanceof InvalidEmployeeDataException) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        if (ex instanceof EmployeeOverloadedException) {
+            return HttpStatus.SERVICE_UNAVAILABLE;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    //items a bulk request has outstanding, waits while they reach a size that may change between items
+    private static final class Window {
+
+        private final IntSupplier size;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+        private int outstanding;
+
+        Window(IntSupplier size) {
+            this.size = size;
+        }
+
+        void acquire() {
+            lock.lock();
+            try {
+                //waiting means an item is outstanding, its release looks at the size again
+                while (outstanding >= size.getAsInt()) {
+                    released.await();
+                }
+                outstanding++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CouchbaseOperationException("Bulk operation interrupted");
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release() {
+            lock.lock();
+            try {
+                outstanding--;
+                released.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.venkat.couch_base_crud.service;
+
+import com.couchbase.client.dcp.Client;
+import com.couchbase.client.dcp.StreamFrom;
+import com.couchbase.client.dcp.StreamTo;
+import com.couchbase.client.dcp.highlevel.DatabaseChangeListener;
+import com.couchbase.client.dcp.highlevel.Deletion;
+import com.couchbase.client.dcp.highlevel.FlowControlMode;
+import com.couchbase.client.dcp.highlevel.Mutation;
+import com.couchbase.client.dcp.highlevel.Rollback;
+import com.couchbase.client.dcp.highlevel.SeqnoAdvanced;
+import com.couchbase.client.dcp.highlevel.SnapshotMarker;
+import com.couchbase.client.dcp.highlevel.StreamFailure;
+import com.couchbase.client.dcp.highlevel.StreamOffset;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.model.EmployeeChange;
+import com.venkat.couch_base_crud.repository.EmployeeDocuments;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+//keeps a copy of every employee document fed by the bucket's DCP stream and passes each change on to the
+//subscribers of changes(). view and stream offsets go to the checkpoint file together, so a restart resumes
+//the stream where the saved view stopped instead of streaming the whole bucket again
+@Slf4j
+@Service
+@Profile("!inmemory")
+@ConditionalOnProperty(name = "employee.change-feed.enabled", havingValue = "true")
+public class EmployeeChangeFeed implements SmartLifecycle {
+
+    private static final int FLOW_CONTROL_BUFFER_BYTES = 16 * 1024 * 1024;
+
+    record Offset(long vbuuid, long seqno, long snapshotStart, long snapshotEnd, long collectionsManifestUid) {
+    }
+
+    record Checkpoint(Map<Integer, Offset> offsets, List<EmployeeChange> employees) {
+    }
+
+    private final String connectionString;
+    private final String username;
+    private final String password;
+    private final String bucketName;
+    private final Path checkpointFile;
+    private final Duration checkpointInterval;
+    private final int maxBufferedChanges;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader documentReader;
+
+    private final Map<String, Employee> view = new ConcurrentHashMap<>();
+    //guards offsets and dirty, and keeps the view in step with the offsets while a checkpoint is taken
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Integer, StreamOffset> offsets = new HashMap<>();
+    private boolean dirty;
+    //events arrive on the single dcp dispatch thread, so emissions never race
+    private final Sinks.Many<EmployeeChange> changes = Sinks.many().multicast().directBestEffort();
+
+    private Client client;
+    private ScheduledExecutorService checkpointScheduler;
+    private volatile boolean running;
+
+    public EmployeeChangeFeed(@Value("${spring.couchbase.connection-string}") String connectionString,
+                              @Value("${spring.couchbase.username}") String username,
+                              @Value("${spring.couchbase.password}") String password,
+                              @Value("${spring.couchbase.bucket.name}") String bucketName,
+                              @Value("${employee.change-feed.checkpoint-file}") Path checkpointFile,
+                              @Value("${employee.change-feed.checkpoint-interval:10s}") Duration checkpointInterval,
+                              @Value("${employee.change-feed.max-buffered-changes:10000}") int maxBufferedChanges,
+                              ObjectMapper objectMapper) {
+        this.connectionString = connectionString;
+        this.username = username;
+        this.password = password;
+        this.bucketName = bucketName;
+        this.checkpointFile = checkpointFile;
+        this.checkpointInterval = checkpointInterval;
+        this.maxBufferedChanges = maxBufferedChanges;
+        this.objectMapper = objectMapper;
+        this.documentReader = objectMapper.readerForMapOf(Object.class);
+    }
+
+    //every employee of the view as an UPSERT, then SNAPSHOT_END, then the live changes. the live side is
+    //subscribed first so nothing falls in between, a subscriber that lags more than max-buffered-changes
+    //behind gets an error and has to reconnect
+    public Flux<EmployeeChange> changes() {
+        Flux<EmployeeChange> live = changes.asFlux().onBackpressureBuffer(maxBufferedChanges);
+        Flux<EmployeeChange> snapshot = Flux.defer(() -> Flux.fromIterable(List.copyOf(view.values())))
+                .map(employee -> new EmployeeChange(EmployeeChange.Type.UPSERT, employee.getId(), employee.getVersion(), employee))
+                .concatWithValues(new EmployeeChange(EmployeeChange.Type.SNAPSHOT_END, null, 0, null));
+        return Flux.merge(live, snapshot);
+    }
+
+    public Optional<Employee> getEmployee(String id) {
+        return Optional.ofNullable(view.get(id));
+    }
+
+    public int size() {
+        return view.size();
+    }
+
+    @Override
+    public void start() {
+        readCheckpoint();
+        client = Client.builder()
+                .connectionString(connectionString)
+                .credentials(username, password)
+                .bucket(bucketName)
+                .collectionsAware(true)
+                .collectionNames("_default._default")
+                .flowControl(FLOW_CONTROL_BUFFER_BYTES)
+                .build();
+        client.listener(new Listener(), FlowControlMode.AUTOMATIC);
+        client.connect().block();
+        client.initializeState(StreamFrom.BEGINNING, StreamTo.INFINITY).block();
+        Map<Integer, StreamOffset> resumeFrom = new HashMap<>();
+        lock.lock();
+        try {
+            for (int vbucket = 0; vbucket < client.numPartitions(); vbucket++) {
+                resumeFrom.put(vbucket, offsets.getOrDefault(vbucket, StreamOffset.ZERO));
+            }
+        } finally {
+            lock.unlock();
+        }
+        client.resumeStreaming(resumeFrom).block();
+        log.info("Employee change feed streaming {} vbuckets, {} employees restored from {}",
+                resumeFrom.size(), view.size(), checkpointFile);
+
+        checkpointScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-change-feed-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = checkpointInterval.toMillis();
+        checkpointScheduler.scheduleWithFixedDelay(this::checkpointQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (checkpointScheduler != null) {
+            checkpointScheduler.shutdownNow();
+        }
+        if (client != null) {
+            client.disconnect().block();
+        }
+        checkpointQuietly();
+        changes.tryEmitComplete();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    void applyMutation(String id, byte[] content, long cas, int vbucket, StreamOffset offset) {
+        Employee employee = decode(id, content);
+        EmployeeChange change;
+        lock.lock();
+        try {
+            offsets.put(vbucket, offset);
+            dirty = true;
+            if (employee == null) {
+                //email lookup keys and anything else that is not an employee
+                change = view.remove(id) == null ? null
+                        : new EmployeeChange(EmployeeChange.Type.DELETE, id, cas, null);
+            } else {
+                employee.setVersion(cas);
+                view.put(id, employee);
+                change = new EmployeeChange(EmployeeChange.Type.UPSERT, id, cas, employee);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (change != null) {
+            changes.tryEmitNext(change);
+        }
+    }
+
+    void applyDeletion(String id, long cas, int vbucket, StreamOffset offset) {
+        boolean removed;
+        lock.lock();
+        try {
+            offsets.put(vbucket, offset);
+            dirty = true;
+            removed = view.remove(id) != null;
+        } finally {
+            lock.unlock();
+        }
+        if (removed) {
+            changes.tryEmitNext(new EmployeeChange(EmployeeChange.Type.DELETE, id, cas, null));
+        }
+    }
+
+    void advance(int vbucket, StreamOffset offset) {
+        lock.lock();
+        try {
+            offsets.put(vbucket, offset);
+            dirty = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void writeCheckpoint() throws IOException {
+        Checkpoint checkpoint;
+        lock.lock();
+        try {
+            if (!dirty) {
+                return;
+            }
+            Map<Integer, Offset> savedOffsets = new HashMap<>();
+            offsets.forEach((vbucket, offset) -> savedOffsets.put(vbucket, new Offset(offset.getVbuuid(), offset.getSeqno(),
+                    offset.getSnapshot().getStartSeqno(), offset.getSnapshot().getEndSeqno(), offset.getCollectionsManifestUid())));
+            List<EmployeeChange> employees = new ArrayList<>(view.size());
+            view.values().forEach(employee -> employees.add(
+                    new EmployeeChange(EmployeeChange.Type.UPSERT, employee.getId(), employee.getVersion(), employee)));
+            checkpoint = new Checkpoint(savedOffsets, employees);
+            dirty = false;
+        } finally {
+            lock.unlock();
+        }
+        Path directory = checkpointFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, checkpointFile.getFileName().toString(), ".tmp");
+        objectMapper.writeValue(temporary.toFile(), checkpoint);
+        Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    void readCheckpoint() {
+        if (!Files.exists(checkpointFile)) {
+            return;
+        }
+        try {
+            Checkpoint checkpoint = objectMapper.readValue(checkpointFile.toFile(), Checkpoint.class);
+            lock.lock();
+            try {
+                checkpoint.offsets().forEach((vbucket, offset) -> offsets.put(vbucket, new StreamOffset(offset.vbuuid(),
+                        offset.seqno(), new SnapshotMarker(offset.snapshotStart(), offset.snapshotEnd()), offset.collectionsManifestUid())));
+                checkpoint.employees().forEach(saved -> {
+                    Employee employee = saved.getEmployee();
+                    employee.setId(saved.getId());
+                    employee.setVersion(saved.getCas());
+                    view.put(saved.getId(), employee);
+                });
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException e) {
+            //an unreadable checkpoint costs a full stream of the bucket, not a wrong view
+            log.warn("Ignoring unreadable change feed checkpoint {}", checkpointFile, e);
+            lock.lock();
+            try {
+                offsets.clear();
+                view.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void checkpointQuietly() {
+        try {
+            writeCheckpoint();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to write change feed checkpoint {}", checkpointFile, e);
+        }
+    }
+
+    //either storage format, see EmployeeDocuments
+    private Employee decode(String id, byte[] content) {
+        try {
+            Map<String, Object> document = documentReader.readValue(content);
+            return EmployeeDocuments.isEmployee(document) ? EmployeeDocuments.decode(id, document) : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private class Listener implements DatabaseChangeListener {
+
+        @Override
+        public void onMutation(Mutation mutation) {
+            if (mutation.isJson()) {
+                applyMutation(mutation.getKey(), mutation.getContent(), mutation.getCas(), mutation.getVbucket(), mutation.getOffset());
+            } else {
+                advance(mutation.getVbucket(), mutation.getOffset());
+            }
+        }
+
+        @Override
+        public void onDeletion(Deletion deletion) {
+            applyDeletion(deletion.getKey(), deletion.getCas(), deletion.getVbucket(), deletion.getOffset());
+        }
+
+        @Override
+        public void onSeqnoAdvanced(SeqnoAdvanced seqnoAdvanced) {
+            advance(seqnoAdvanced.getVbucket(), seqnoAdvanced.getOffset());
+        }
+
+        //the stream restarts from the rollback point and replays what changed after it, a document that only
+        //existed in the rolled back history stays in the view until it is written again
+        @Override
+        public void onRollback(Rollback rollback) {
+            log.warn("Change feed rolled back vbucket {} to seqno {}", rollback.getVbucket(), rollback.getSeqno());
+            rollback.resume();
+        }
+
+        @Override
+        public void onFailure(StreamFailure failure) {
+            log.error("Change feed stream failed for vbucket {}", failure.getVbucket(), failure.getCause());
+        }
+    }
+}
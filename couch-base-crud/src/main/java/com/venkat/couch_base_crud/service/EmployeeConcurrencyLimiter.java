@@ -0,0 +1,111 @@
+package com.venkat.couch_base_crud.service;
+
+import com.venkat.couch_base_crud.exception.EmployeeOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+//adaptive bulkheads in front of couchbase, one per kind of work so slow n1ql queries cannot take the
+//capacity of kv gets. each keeps as many requests in flight as its latency allows (see AdaptiveLimit)
+//and refuses the rest at once with EmployeeOverloadedException, a 503, instead of queueing them
+@Component
+@ConditionalOnProperty(name = "employee.concurrency-limit.enabled", havingValue = "true")
+public class EmployeeConcurrencyLimiter {
+
+    public enum Bulkhead {
+        KV_READ,
+        KV_WRITE,
+        QUERY;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+
+    private final Map<Bulkhead, AdaptiveLimit> limits = new EnumMap<>(Bulkhead.class);
+    private final Map<Bulkhead, Counter> shed = new EnumMap<>(Bulkhead.class);
+    private final long retryAfterSeconds;
+
+    public EmployeeConcurrencyLimiter(MeterRegistry meterRegistry,
+                                      @Value("${employee.concurrency-limit.initial-limit:64}") int initialLimit,
+                                      @Value("${employee.concurrency-limit.min-limit:8}") int minLimit,
+                                      @Value("${employee.concurrency-limit.kv-read-max-limit:512}") int kvReadMaxLimit,
+                                      @Value("${employee.concurrency-limit.kv-write-max-limit:256}") int kvWriteMaxLimit,
+                                      @Value("${employee.concurrency-limit.query-max-limit:32}") int queryMaxLimit,
+                                      @Value("${employee.concurrency-limit.rtt-tolerance:1.5}") double rttTolerance,
+                                      @Value("${employee.concurrency-limit.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+        limits.put(Bulkhead.KV_READ, new AdaptiveLimit(initialLimit, minLimit, kvReadMaxLimit, rttTolerance));
+        limits.put(Bulkhead.KV_WRITE, new AdaptiveLimit(initialLimit, minLimit, kvWriteMaxLimit, rttTolerance));
+        limits.put(Bulkhead.QUERY, new AdaptiveLimit(initialLimit, minLimit, queryMaxLimit, rttTolerance));
+        limits.forEach((bulkhead, limit) -> {
+            shed.put(bulkhead, meterRegistry.counter("employee.concurrency.shed", "bulkhead", bulkhead.tag()));
+            Gauge.builder("employee.concurrency.limit", limit, AdaptiveLimit::limit)
+                    .tag("bulkhead", bulkhead.tag())
+                    .register(meterRegistry);
+            Gauge.builder("employee.concurrency.in.flight", limit, AdaptiveLimit::inFlight)
+                    .tag("bulkhead", bulkhead.tag())
+                    .register(meterRegistry);
+        });
+    }
+
+    //the latency of operation, errors included, is what moves the limit
+    public <T> T call(Bulkhead bulkhead, Supplier<T> operation) {
+        Permit permit = acquire(bulkhead);
+        try {
+            return operation.get();
+        } finally {
+            permit.release();
+        }
+    }
+
+    //for work whose couchbase part ends before the work does, the caller releases the permit once that part
+    //is done and the time until then is the sample
+    public Permit acquire(Bulkhead bulkhead) {
+        AdaptiveLimit limit = limits.get(bulkhead);
+        if (!limit.tryAcquire()) {
+            shed.get(bulkhead).increment();
+            throw new EmployeeOverloadedException("Too many concurrent " + bulkhead.tag()
+                    + " requests to the database, retry later", retryAfterSeconds);
+        }
+        return new Permit(limit);
+    }
+
+    int limit(Bulkhead bulkhead) {
+        return limits.get(bulkhead).limit();
+    }
+
+    int inFlight(Bulkhead bulkhead) {
+        return limits.get(bulkhead).inFlight();
+    }
+
+    //only the first release gives the permit back, so it can be released early and again in a finally
+    public static final class Permit {
+
+        //held by callers while the limit is off
+        public static final Permit NONE = new Permit(null);
+
+        private final AdaptiveLimit limit;
+        private final long started = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(AdaptiveLimit limit) {
+            this.limit = limit;
+        }
+
+        public void release() {
+            if (limit != null && released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - started);
+            }
+        }
+    }
+}
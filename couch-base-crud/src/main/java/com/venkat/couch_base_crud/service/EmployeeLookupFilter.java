@@ -0,0 +1,230 @@
+package com.venkat.couch_base_crud.service;
+
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.model.EmployeeChange;
+import com.venkat.couch_base_crud.model.EmployeeConsistency;
+import com.venkat.couch_base_crud.repository.EmployeeRepository;
+import com.venkat.couch_base_crud.repository.InMemoryEmployeeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+//bloom filters of the employee ids and emails, a lookup they have never seen is answered as not found
+//without a round trip. filled by a scan of the bucket, then by the creates and email claims of this instance
+//and by the writes of every other instance through the change feed, which is required for that reason unless
+//the repository is the in-memory one. a write on another instance is missed for as long as dcp takes to
+//deliver it. deletes cannot be taken out of a bloom filter, they stay false positives until the next
+//rebuild. every lookup goes to couchbase until the first scan is done
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "employee.lookup-filter.enabled", havingValue = "true")
+public class EmployeeLookupFilter {
+
+    private record Filters(BloomFilter ids, BloomFilter emails) {
+    }
+
+    private final EmployeeRepository employeeRepository;
+    private final ObjectProvider<EmployeeChangeFeed> changeFeed;
+    private final long expectedEmployees;
+    private final double falsePositiveRate;
+    private final Duration rebuildInterval;
+    private final Counter idMisses;
+    private final Counter emailMisses;
+
+    //guards the swap of current and next against adds, so an add during a rebuild lands in both
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Filters current;
+    private Filters next;
+
+    private ScheduledExecutorService rebuildScheduler;
+    private Disposable changes;
+
+    public EmployeeLookupFilter(EmployeeRepository employeeRepository,
+                                ObjectProvider<EmployeeChangeFeed> changeFeed,
+                                MeterRegistry meterRegistry,
+                                @Value("${employee.lookup-filter.expected-employees:1000000}") long expectedEmployees,
+                                @Value("${employee.lookup-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                                @Value("${employee.lookup-filter.rebuild-interval-millis:3600000}") long rebuildIntervalMillis) {
+        //without the feed the writes of other instances would be answered as not found until the next rebuild
+        if (changeFeed.getIfAvailable() == null && !(employeeRepository instanceof InMemoryEmployeeRepository)) {
+            throw new IllegalStateException("employee.lookup-filter.enabled requires employee.change-feed.enabled");
+        }
+        this.employeeRepository = employeeRepository;
+        this.changeFeed = changeFeed;
+        this.expectedEmployees = expectedEmployees;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildInterval = Duration.ofMillis(rebuildIntervalMillis);
+        this.idMisses = meterRegistry.counter("employee.lookup.filter.misses", "lookup", "id");
+        this.emailMisses = meterRegistry.counter("employee.lookup.filter.misses", "lookup", "email");
+        gauge(meterRegistry, "employee.lookup.filter.items", "id", filter -> filter.ids().items());
+        gauge(meterRegistry, "employee.lookup.filter.items", "email", filter -> filter.emails().items());
+        gauge(meterRegistry, "employee.lookup.filter.false.positive.rate", "id", filter -> filter.ids().falsePositiveRate());
+        gauge(meterRegistry, "employee.lookup.filter.false.positive.rate", "email", filter -> filter.emails().falsePositiveRate());
+        Gauge.builder("employee.lookup.filter.memory", this,
+                        lookupFilter -> lookupFilter.current == null ? 0
+                                : lookupFilter.current.ids().memoryBytes() + lookupFilter.current.emails().memoryBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    //the first scan runs at once, off the startup path
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        changeFeed.ifAvailable(feed -> changes = feed.changes()
+                .filter(change -> change.getType() == EmployeeChange.Type.UPSERT)
+                .retry()
+                .subscribe(change -> {
+                    addId(change.getId());
+                    addEmail(change.getEmployee().getEmail());
+                }));
+        rebuildScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-lookup-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rebuildScheduler.scheduleWithFixedDelay(this::rebuildQuietly, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (changes != null) {
+            changes.dispose();
+        }
+        if (rebuildScheduler != null) {
+            rebuildScheduler.shutdownNow();
+        }
+    }
+
+    //false only when no employee has the id, true when one probably has
+    public boolean mightHaveId(String id) {
+        Filters filters = current;
+        if (filters == null || filters.ids().mightContain(id)) {
+            return true;
+        }
+        idMisses.increment();
+        return false;
+    }
+
+    public boolean mightHaveEmail(String email) {
+        Filters filters = current;
+        if (filters == null || filters.emails().mightContain(normalize(email))) {
+            return true;
+        }
+        emailMisses.increment();
+        return false;
+    }
+
+    //called before the write, so the filter never misses an employee that a lookup can find
+    public void addId(String id) {
+        lock.lock();
+        try {
+            if (current != null) {
+                current.ids().add(id);
+            }
+            if (next != null) {
+                next.ids().add(id);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void addEmail(String email) {
+        if (email == null) {
+            return;
+        }
+        String normalized = normalize(email);
+        lock.lock();
+        try {
+            if (current != null) {
+                current.emails().add(normalized);
+            }
+            if (next != null) {
+                next.emails().add(normalized);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //request_plus so every write finished before the scan is in it, later ones go to next through the adds
+    void rebuild() {
+        long started = System.nanoTime();
+        Filters building = new Filters(new BloomFilter(expectedEmployees, falsePositiveRate),
+                new BloomFilter(expectedEmployees, falsePositiveRate));
+        lock.lock();
+        try {
+            next = building;
+        } finally {
+            lock.unlock();
+        }
+        try (Stream<Employee> employees = employeeRepository.streamAll(EmployeeConsistency.REQUEST_PLUS)) {
+            employees.forEach(employee -> {
+                building.ids().add(employee.getId());
+                if (employee.getEmail() != null) {
+                    building.emails().add(normalize(employee.getEmail()));
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                next = null;
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+        lock.lock();
+        try {
+            current = building;
+            next = null;
+        } finally {
+            lock.unlock();
+        }
+        log.info("Employee lookup filter built in {} ms: {} ids, {} emails, {} KiB, {} hashes, false positive rate {}",
+                Duration.ofNanos(System.nanoTime() - started).toMillis(), building.ids().items(), building.emails().items(),
+                (building.ids().memoryBytes() + building.emails().memoryBytes()) / 1024, building.ids().hashes(),
+                String.format(Locale.ROOT, "%.4f", building.ids().falsePositiveRate()));
+        if (building.ids().items() > expectedEmployees) {
+            log.warn("Employee lookup filter holds {} ids but is sized for {}, raise employee.lookup-filter.expected-employees",
+                    building.ids().items(), expectedEmployees);
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Unable to build the employee lookup filter, lookups go to couchbase until the next try", e);
+        }
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String name, String lookup, ToDoubleFunction<Filters> value) {
+        Gauge.builder(name, this, lookupFilter -> lookupFilter.current == null ? 0 : value.applyAsDouble(lookupFilter.current))
+                .tag("lookup", lookup)
+                .register(meterRegistry);
+    }
+
+    //same normalization as the email lookup keys
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
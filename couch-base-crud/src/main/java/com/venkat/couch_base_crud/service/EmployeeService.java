@@ -1,100 +1,613 @@
 package com.venkat.couch_base_crud.service;
 
+import com.venkat.couch_base_crud.config.CacheConfig;
 import com.venkat.couch_base_crud.exception.CouchbaseOperationException;
 import com.venkat.couch_base_crud.exception.EmployeeAlreadyExistsException;
 import com.venkat.couch_base_crud.exception.EmployeeNotFoundException;
+import com.venkat.couch_base_crud.exception.EmployeeUpdateConflictException;
+import com.venkat.couch_base_crud.exception.EmployeeVersionConflictException;
 import com.venkat.couch_base_crud.exception.InvalidEmployeeDataException;
 import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.model.EmployeeBatch;
+import com.venkat.couch_base_crud.model.EmployeeConsistency;
+import com.venkat.couch_base_crud.model.EmployeePage;
+import com.venkat.couch_base_crud.model.EmployeeSearchPage;
+import com.venkat.couch_base_crud.repository.EmployeeDocuments;
+import com.venkat.couch_base_crud.repository.EmployeeNameSearch;
 import com.venkat.couch_base_crud.repository.EmployeeRepository;
+import com.venkat.couch_base_crud.service.EmployeeConcurrencyLimiter.Bulkhead;
+import com.venkat.couch_base_crud.service.EmployeeConcurrencyLimiter.Permit;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+//every public method is timed as employee.service, tagged with method and the exception it threw
 @Service
+@Timed(value = "employee.service", percentiles = {0.5, 0.99, 0.999}, histogram = true)
 public class EmployeeService {
 
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_BATCH_SIZE = 500;
+    //read and save rounds of a put without If-Match that keeps losing the cas race
+    static final int MAX_UPDATE_ATTEMPTS = 3;
+
     private final EmployeeRepository employeeRepository;
+    private final Cache employeeCache;
+    //null unless employee.write-behind.enabled
+    private final EmployeeWriteBehind writeBehind;
+    //null unless employee.lookup-filter.enabled
+    private final EmployeeLookupFilter lookupFilter;
+    //null unless employee.concurrency-limit.enabled
+    private final EmployeeConcurrencyLimiter concurrencyLimiter;
+
+    public EmployeeService(EmployeeRepository employeeRepository, CacheManager cacheManager) {
+        this(employeeRepository, cacheManager, null, null, false, 0, 0, 0, 0);
+    }
 
-    public EmployeeService(EmployeeRepository employeeRepository) {
+    @Autowired
+    public EmployeeService(EmployeeRepository employeeRepository, CacheManager cacheManager,
+                           @Nullable EmployeeLookupFilter lookupFilter,
+                           @Nullable EmployeeConcurrencyLimiter concurrencyLimiter,
+                           @Value("${employee.write-behind.enabled:false}") boolean writeBehindEnabled,
+                           @Value("${employee.write-behind.max-pending:10000}") int maxPending,
+                           @Value("${employee.write-behind.flush-size:500}") int flushSize,
+                           @Value("${employee.write-behind.flush-interval-millis:200}") long flushIntervalMillis,
+                           @Value("${employee.write-behind.flush-concurrency:16}") int flushConcurrency) {
         this.employeeRepository = employeeRepository;
+        this.employeeCache = cacheManager.getCache(CacheConfig.EMPLOYEE_CACHE);
+        this.lookupFilter = lookupFilter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.writeBehind = writeBehindEnabled
+                ? new EmployeeWriteBehind(this::writeBufferedUpdate, maxPending, flushSize,
+                        Duration.ofMillis(flushIntervalMillis), flushConcurrency)
+                : null;
+    }
+
+    //buffered updates are written before the repository goes away
+    @PreDestroy
+    void flushPendingUpdates() {
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
     }
 
     public List<Employee> getAllEmployees() {
-        try {
-            List<Employee> employees = employeeRepository.findAll();
-            if(employees.isEmpty()) {
-                throw new CouchbaseOperationException("No employees found");
+        return getAllEmployees(EmployeeConsistency.NOT_BOUNDED);
+    }
+
+    //not_bounded stays on the plain repository queries, the other modes pay for waiting on the index
+    public List<Employee> getAllEmployees(EmployeeConsistency consistency) {
+        return limited(Bulkhead.QUERY, () -> {
+            try {
+                List<Employee> employees = consistency == EmployeeConsistency.NOT_BOUNDED
+                        ? employeeRepository.findAll()
+                        : employeeRepository.findAll(consistency);
+                if(employees.isEmpty()) {
+                    throw new CouchbaseOperationException("No employees found");
+                }
+                return employees;
+            }catch (DataAccessException e) {
+                throw new CouchbaseOperationException("Unable to fetch employees");
             }
-            return employees;
+        });
+    }
+
+    //keyset pagination, the cursor is the encoded id of the last employee of the previous page
+    public EmployeePage getEmployeePage(String cursor, Integer size) {
+        return getEmployeePage(cursor, size, EmployeeConsistency.NOT_BOUNDED);
+    }
+
+    public EmployeePage getEmployeePage(String cursor, Integer size, EmployeeConsistency consistency) {
+        int pageSize = resolvePageSize(size);
+        String afterId = decodeCursor(cursor);
+        return limited(Bulkhead.QUERY, () -> {
+            try {
+                //fetch one extra row to know whether another page follows
+                List<Employee> employees = consistency == EmployeeConsistency.NOT_BOUNDED
+                        ? employeeRepository.findPageAfterId(afterId, pageSize + 1)
+                        : employeeRepository.findPageAfterId(afterId, pageSize + 1, consistency);
+                if (employees.size() <= pageSize) {
+                    return new EmployeePage(employees, null);
+                }
+                List<Employee> page = employees.subList(0, pageSize);
+                return new EmployeePage(page, encodeCursor(page.get(pageSize - 1).getId()));
+            }catch (DataAccessException e) {
+                throw new CouchbaseOperationException("Unable to fetch employees");
+            }
+        });
+    }
+
+    //hands every employee to the consumer as it is read, without holding the whole result in memory
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        streamAllEmployees(EmployeeConsistency.NOT_BOUNDED, consumer);
+    }
+
+    //the query permit is given back at the first row: how fast the client reads the rest is no query latency,
+    //and a slow reader must not keep a permit that short page and search queries need
+    public void streamAllEmployees(EmployeeConsistency consistency, Consumer<Employee> consumer) {
+        Permit permit = acquire(Bulkhead.QUERY);
+        try (Stream<Employee> employees = consistency == EmployeeConsistency.NOT_BOUNDED
+                ? employeeRepository.streamAll()
+                : employeeRepository.streamAll(consistency)) {
+            Iterator<Employee> rows = employees.iterator();
+            //waits for the first row, or the end of an empty result
+            rows.hasNext();
+            permit.release();
+            rows.forEachRemaining(consumer);
         }catch (DataAccessException e) {
             throw new CouchbaseOperationException("Unable to fetch employees");
+        } finally {
+            permit.release();
         }
     }
 
+    //prefix search on first and/or last name, answered from the name indexes without fetching documents.
+    //fields is a comma separated subset of id, firstName, lastName and email, all of them when empty
+    public EmployeeSearchPage searchEmployees(String firstName, String lastName, String fields,
+                                              String cursor, Integer size, EmployeeConsistency consistency) {
+        if (!StringUtils.hasText(firstName) && !StringUtils.hasText(lastName)) {
+            throw new InvalidEmployeeDataException("firstName or lastName is required");
+        }
+        List<String> projection = searchFields(fields);
+        int pageSize = resolvePageSize(size);
+        String afterName = null;
+        String afterId = null;
+        if (StringUtils.hasText(cursor)) {
+            String[] position = decodeCursor(cursor).split("\u0000", -1);
+            if (position.length != 2) {
+                throw new InvalidEmployeeDataException("Invalid page cursor");
+            }
+            afterName = position[0];
+            afterId = position[1];
+        }
+        EmployeeNameSearch search = new EmployeeNameSearch(
+                StringUtils.hasText(firstName) ? firstName : null, StringUtils.hasText(lastName) ? lastName : null,
+                projection, afterName, afterId, pageSize + 1);
+        return limited(Bulkhead.QUERY, () -> {
+            try {
+                List<Map<String, Object>> rows = employeeRepository.searchByName(search, consistency);
+                boolean more = rows.size() > pageSize;
+                List<Map<String, Object>> page = more ? rows.subList(0, pageSize) : rows;
+                List<Map<String, Object>> items = page.stream().map(row -> project(row, projection)).toList();
+                if (!more) {
+                    return new EmployeeSearchPage(items, null);
+                }
+                Map<String, Object> last = page.get(pageSize - 1);
+                return new EmployeeSearchPage(items, encodeCursor(last.get(search.sortField()) + "\u0000" + last.get("id")));
+            }catch (DataAccessException e) {
+                throw new CouchbaseOperationException("Unable to search employees");
+            }
+        });
+    }
+
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id")
     public Employee getEmployeeById(String id) {
-        try {
-            return employeeRepository
-                    .findById(id)
-                    .orElseThrow(() -> new EmployeeNotFoundException("Employee with id " + id + " not found"));
-        }catch(DataAccessException e) {
-            throw new CouchbaseOperationException("Unable to fetch employee");
+        requireEmployeeKey(id);
+        if (lookupFilter != null && !lookupFilter.mightHaveId(id)) {
+            throw new EmployeeNotFoundException("Employee with id " + id + " not found");
         }
+        return limited(Bulkhead.KV_READ, () -> {
+            try {
+                return employeeRepository
+                        .findById(id)
+                        .orElseThrow(() -> new EmployeeNotFoundException("Employee with id " + id + " not found"));
+            }catch(DataAccessException e) {
+                throw new CouchbaseOperationException("Unable to fetch employee");
+            }
+        });
     }
 
+    //cas of the employee without reading its body, from the cached copy getEmployeeById would answer with,
+    //otherwise from a kv exists. empty when there is no employee with the id
+    public OptionalLong getEmployeeVersion(String id) {
+        Employee cached = employeeCache == null ? null : employeeCache.get(id, Employee.class);
+        if (cached != null) {
+            return OptionalLong.of(cached.getVersion());
+        }
+        if (!EmployeeDocuments.isEmployeeKey(id) || (lookupFilter != null && !lookupFilter.mightHaveId(id))) {
+            return OptionalLong.empty();
+        }
+        return limited(Bulkhead.KV_READ, () -> {
+            try {
+                return employeeRepository.findVersion(id);
+            }catch (DataAccessException e) {
+                throw new CouchbaseOperationException("Unable to fetch employee");
+            }
+        });
+    }
+
+    //findAllById issues one kv get per id concurrently, so a batch costs about one round trip
+    public EmployeeBatch getEmployeesByIds(List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new InvalidEmployeeDataException("At least one id is required");
+        }
+        Set<String> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > MAX_BATCH_SIZE) {
+            throw new InvalidEmployeeDataException("At most " + MAX_BATCH_SIZE + " ids per request");
+        }
+        if (uniqueIds.stream().anyMatch(id -> !StringUtils.hasText(id))) {
+            throw new InvalidEmployeeDataException("Employee id is required");
+        }
+        return limited(Bulkhead.KV_READ, () -> {
+            try {
+                Map<String, Employee> found = new HashMap<>();
+                //lookup document keys are reported missing without being read
+                List<String> employeeIds = uniqueIds.stream().filter(EmployeeDocuments::isEmployeeKey).toList();
+                employeeRepository.findAllById(employeeIds).forEach(employee -> found.put(employee.getId(), employee));
+                List<Employee> items = new ArrayList<>(found.size());
+                List<String> missing = new ArrayList<>();
+                for (String id : uniqueIds) {
+                    Employee employee = found.get(id);
+                    if (employee != null) {
+                        items.add(employee);
+                    } else {
+                        missing.add(id);
+                    }
+                }
+                return new EmployeeBatch(items, missing);
+            }catch (DataAccessException e) {
+                throw new CouchbaseOperationException("Unable to fetch employees");
+            }
+        });
+    }
+
+    //email lookup document -> id -> employee, two kv gets instead of a query
     public Employee getEmployeeByEmail(String email) {
-        try {
-            return employeeRepository
-                    .findByEmail(email)
-                    .orElseThrow(() -> new EmployeeNotFoundException("Employee with email " + email + " not found"));
-        }catch(DataAccessException e) {
-            throw new CouchbaseOperationException("Unable to fetch employee");
+        if (lookupFilter != null && !lookupFilter.mightHaveEmail(email)) {
+            throw new EmployeeNotFoundException("Employee with email " + email + " not found");
         }
+        return limited(Bulkhead.KV_READ, () -> {
+            try {
+                return employeeRepository
+                        .findEmailOwner(email)
+                        .flatMap(employeeRepository::findById)
+                        .filter(employee -> sameEmail(employee.getEmail(), email))
+                        .orElseThrow(() -> new EmployeeNotFoundException("Employee with email " + email + " not found"));
+            }catch(DataAccessException e) {
+                throw new CouchbaseOperationException("Unable to fetch employee");
+            }
+        });
     }
 
     //creating employee
     public Employee createEmployee(Employee employee) {
         validateEmployeeData(employee);
-        try {
-            //check if employee with email already exists
-            if(employeeRepository.findByEmail(employee.getEmail()).isPresent()) {
-                throw new EmployeeAlreadyExistsException("Employee with email " + employee.getEmail() + " already exists");
+        validateEmployeeId(employee.getId());
+        return limited(Bulkhead.KV_WRITE, () -> {
+            try {
+                if (employee.getId() == null) {
+                    employee.setId(UUID.randomUUID().toString());
+                }
+                //always an insert, an employee with the same id is a conflict and never overwritten
+                employee.setVersion(0);
+                if (lookupFilter != null) {
+                    lookupFilter.addId(employee.getId());
+                }
+                //the email lookup key is claimed first, a concurrent create with the same email loses the insert
+                claimEmail(employee.getEmail(), employee.getId());
+                try {
+                    return employeeRepository.save(employee);
+                } catch (DuplicateKeyException e) {
+                    throw new EmployeeAlreadyExistsException("Employee with id " + employee.getId() + " already exists");
+                } catch (DataAccessException e) {
+                    employeeRepository.removeEmailKey(employee.getEmail(), employee.getId());
+                    throw e;
+                }
+            }catch(DataAccessException e) {
+                throw new CouchbaseOperationException("Unable to create employee");
             }
-            return employeeRepository.save(employee);
-        }catch(DataAccessException e) {
-            throw new CouchbaseOperationException("Unable to create employee");
-        }
+        });
     }
 
+    //with write-behind the update is only buffered and the employee comes back with version 0,
+    //not found, email and write errors then show up in the log instead of the response
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id")
     public Employee updateEmployee(String id, Employee employee) {
         validateEmployeeData(employee);
-        try {
-            Employee existingEmployee = employeeRepository.findById(id)
-                    .orElseThrow(() -> new EmployeeNotFoundException("Employee with id " + id + " not found"));
-            existingEmployee.setFirstName(employee.getFirstName());
-            existingEmployee.setLastName(employee.getLastName());
-            existingEmployee.setEmail(employee.getEmail());
-            existingEmployee.setAddress(employee.getAddress());
-            return employeeRepository.save(existingEmployee);
-        }catch(DataAccessException e) {
-            throw new CouchbaseOperationException("Unable to update employee");
+        requireEmployeeKey(id);
+        if (writeBehind != null) {
+            employee.setId(id);
+            employee.setVersion(0);
+            if (writeBehind.submit(id, employee)) {
+                return employee;
+            }
+        }
+        return limited(Bulkhead.KV_WRITE, () -> writeUpdate(id, employee));
+    }
 
+    //no If-Match, so a concurrent write is no failed precondition: the update is read and applied again on top
+    //of it, and only when it keeps losing the client gets a 409 to try again
+    private Employee writeUpdate(String id, Employee employee) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return readAndSave(id, employee);
+            }catch(OptimisticLockingFailureException e) {
+                if (attempt >= MAX_UPDATE_ATTEMPTS) {
+                    throw new EmployeeUpdateConflictException("Employee with id " + id
+                            + " kept being modified concurrently, try again");
+                }
+            }catch(DataAccessException e) {
+                throw new CouchbaseOperationException("Unable to update employee");
+            }
+        }
+    }
+
+    private Employee readAndSave(String id, Employee employee) {
+        Employee existingEmployee = employeeRepository.findById(id)
+                .orElseThrow(() -> new EmployeeNotFoundException("Employee with id " + id + " not found"));
+        String previousEmail = existingEmployee.getEmail();
+        boolean emailChanged = !sameEmail(previousEmail, employee.getEmail());
+        if (emailChanged) {
+            claimEmail(employee.getEmail(), id);
+        }
+        existingEmployee.setFirstName(employee.getFirstName());
+        existingEmployee.setLastName(employee.getLastName());
+        existingEmployee.setEmail(employee.getEmail());
+        existingEmployee.setAddress(employee.getAddress());
+        Employee saved = employeeRepository.save(existingEmployee);
+        if (emailChanged && previousEmail != null) {
+            employeeRepository.removeEmailKey(previousEmail, id);
+        }
+        return saved;
+    }
+
+    //the writer of the write-behind buffer
+    void writeBufferedUpdate(String id, Employee employee) {
+        try {
+            writeUpdate(id, employee);
+        } finally {
+            if (employeeCache != null) {
+                employeeCache.evict(id);
+            }
         }
     }
 
+    //single cas guarded replace for a client that already holds the document, no read first.
+    //a key left behind by an email change is stale and gets taken over by its next claim
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id")
+    public Employee replaceEmployee(String id, Employee employee, long cas) {
+        validateEmployeeData(employee);
+        requireEmployeeKey(id);
+        return limited(Bulkhead.KV_WRITE, () -> {
+            try {
+                holdEmail(employee.getEmail(), id);
+                employee.setId(id);
+                employee.setVersion(cas);
+                return employeeRepository.save(employee);
+            }catch(OptimisticLockingFailureException e) {
+                throw versionConflict(id);
+            }catch(DataRetrievalFailureException e) {
+                throw new EmployeeNotFoundException("Employee with id " + id + " not found");
+            }catch(DataAccessException e) {
+                throw new CouchbaseOperationException("Unable to update employee");
+            }
+        });
+    }
+
+    //writes only the non null fields of changes, cas 0 means unconditional, returns the new cas
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id")
+    public long patchEmployee(String id, Employee changes, long cas) {
+        Map<String, Object> fields = patchFields(changes);
+        requireEmployeeKey(id);
+        return limited(Bulkhead.KV_WRITE, () -> {
+            try {
+                if (fields.containsKey("email")) {
+                    holdEmail(changes.getEmail(), id);
+                }
+                return employeeRepository.patchEmployee(id, fields, cas)
+                        .orElseThrow(() -> new EmployeeNotFoundException("Employee with id " + id + " not found"));
+            }catch(OptimisticLockingFailureException e) {
+                throw versionConflict(id);
+            }catch(DataAccessException e) {
+                throw new CouchbaseOperationException("Unable to update employee");
+            }
+        });
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id")
     public void deleteEmployee(String id) {
+        requireEmployeeKey(id);
+        limited(Bulkhead.KV_WRITE, () -> {
+            try {
+                //only the email is read, so its lookup key goes with the employee. a key left behind when the
+                //removal fails or the email changed in between is taken over by its next claim
+                Optional<String> email = employeeRepository.findEmail(id);
+                employeeRepository.deleteById(id);
+                email.ifPresent(owned -> employeeRepository.removeEmailKey(owned, id));
+                return null;
+            }catch(DataRetrievalFailureException e) {
+                throw new EmployeeNotFoundException("Employee with id " + id + " not found");
+            }catch(DataAccessException e) {
+                throw new CouchbaseOperationException("Unable to delete employee");
+            }
+        });
+    }
+
+
+    private void claimEmail(String email, String employeeId) {
+        if (lookupFilter != null) {
+            lookupFilter.addEmail(email);
+        }
+        if (employeeRepository.insertEmailKey(email, employeeId)) {
+            return;
+        }
+        Optional<String> owner = employeeRepository.findEmailOwner(email);
+        if (owner.isEmpty()) {
+            //released between the insert and the get, try once more
+            if (employeeRepository.insertEmailKey(email, employeeId)) {
+                return;
+            }
+            throw emailTaken(email);
+        }
+        if (owner.get().equals(employeeId)) {
+            return;
+        }
+        //keys left behind by a deleted employee, an email change or a failed create can be taken over
+        boolean ownerUsesEmail = employeeRepository.findById(owner.get())
+                .map(existing -> sameEmail(existing.getEmail(), email))
+                .orElse(false);
+        if (ownerUsesEmail || !employeeRepository.replaceEmailOwner(email, owner.get(), employeeId)) {
+            throw emailTaken(email);
+        }
+    }
+
+    //the common unchanged email case costs one kv get of the lookup document
+    private void holdEmail(String email, String employeeId) {
+        if (employeeRepository.findEmailOwner(email).filter(employeeId::equals).isEmpty()) {
+            claimEmail(email, employeeId);
+        }
+    }
+
+    //an email lookup document is not an employee, reading, writing or deleting it by id must not reach it
+    static void requireEmployeeKey(String id) {
+        if (!EmployeeDocuments.isEmployeeKey(id)) {
+            throw new EmployeeNotFoundException("Employee with id " + id + " not found");
+        }
+    }
+
+    //a client chosen id must not be the key of an email lookup document
+    static void validateEmployeeId(String id) {
+        if (id != null && !EmployeeDocuments.isEmployeeKey(id)) {
+            throw new InvalidEmployeeDataException("Employee id must not start with " + EmployeeDocuments.EMAIL_KEY_PREFIX);
+        }
+    }
+
+    //runs the couchbase work of one service call inside its bulkhead, refused at once when the bulkhead is full
+    private <T> T limited(Bulkhead bulkhead, Supplier<T> work) {
+        return concurrencyLimiter == null ? work.get() : concurrencyLimiter.call(bulkhead, work);
+    }
+
+    private Permit acquire(Bulkhead bulkhead) {
+        return concurrencyLimiter == null ? Permit.NONE : concurrencyLimiter.acquire(bulkhead);
+    }
+
+    private EmployeeVersionConflictException versionConflict(String id) {
+        return new EmployeeVersionConflictException("Employee with id " + id + " was modified concurrently");
+    }
+
+    private EmployeeAlreadyExistsException emailTaken(String email) {
+        return new EmployeeAlreadyExistsException("Employee with email " + email + " already exists");
+    }
+
+    static boolean sameEmail(String email, String other) {
+        return email != null && other != null && email.trim().equalsIgnoreCase(other.trim());
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1) {
+            throw new InvalidEmployeeDataException("Page size must be at least 1");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private List<String> searchFields(String fields) {
+        if (!StringUtils.hasText(fields)) {
+            return EmployeeNameSearch.INDEXED_FIELDS;
+        }
+        List<String> projection = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .distinct()
+                .toList();
+        for (String field : projection) {
+            if (!EmployeeNameSearch.INDEXED_FIELDS.contains(field)) {
+                throw new InvalidEmployeeDataException("Field " + field + " cannot be searched, use one of "
+                        + EmployeeNameSearch.INDEXED_FIELDS);
+            }
+        }
+        return projection;
+    }
+
+    private Map<String, Object> project(Map<String, Object> row, List<String> fields) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        fields.forEach(field -> item.put(field, row.get(field)));
+        return item;
+    }
+
+    private String encodeCursor(String lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String decodeCursor(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return "";
+        }
         try {
-            //employeeRepository.deleteById(id);
-            Employee employee = getEmployeeById(id);
-            employeeRepository.delete(employee);
-        }catch(DataAccessException e) {
-            throw new CouchbaseOperationException("Unable to delete employee");
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEmployeeDataException("Invalid page cursor");
         }
     }
 
+    private Map<String, Object> patchFields(Employee changes) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        if (changes.getFirstName() != null) {
+            if (!StringUtils.hasText(changes.getFirstName())) {
+                throw new InvalidEmployeeDataException("First name is required");
+            }
+            fields.put("firstName", changes.getFirstName());
+        }
+        if (changes.getLastName() != null) {
+            if (!StringUtils.hasText(changes.getLastName())) {
+                throw new InvalidEmployeeDataException("Last name is required");
+            }
+            fields.put("lastName", changes.getLastName());
+        }
+        if (changes.getEmail() != null) {
+            if (!StringUtils.hasText(changes.getEmail()) || !changes.getEmail().contains("@")) {
+                throw new InvalidEmployeeDataException("Email is required");
+            }
+            fields.put("email", changes.getEmail());
+        }
+        if (changes.getAddress() != null) {
+            if (changes.getAddress().length == 0) {
+                throw new InvalidEmployeeDataException("At least one address is required");
+            }
+            fields.put("address", List.of(changes.getAddress()));
+        }
+        if (fields.isEmpty()) {
+            throw new InvalidEmployeeDataException("Nothing to update");
+        }
+        return fields;
+    }
 
-    private void validateEmployeeData(Employee employee) {
+    static void validateEmployeeData(Employee employee) {
         if (!StringUtils.hasText(employee.getFirstName())) {
             throw new InvalidEmployeeDataException("First name is required");
         }
@@ -0,0 +1,177 @@
+package com.venkat.couch_base_crud.service;
+
+import com.venkat.couch_base_crud.exception.EmployeeUpdateConflictException;
+import com.venkat.couch_base_crud.model.Employee;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+//buffers full employee updates per id, a newer update of the same id replaces the buffered one, so a burst
+//of updates to one document costs a single read and write. the buffer is flushed when it holds flushSize
+//ids or every flushInterval, whichever comes first, and on close. buffered updates only live in memory
+@Slf4j
+class EmployeeWriteBehind implements AutoCloseable {
+
+    private final BiConsumer<String, Employee> writer;
+    private final int maxPending;
+    private final int flushSize;
+    //insertion ordered, a coalesced update keeps the position of the first one
+    private final Map<String, Employee> pending = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    //one flush at a time, so two writes of the same id never overlap
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService flushScheduler;
+    private final ExecutorService writers;
+    private volatile boolean closed;
+
+    EmployeeWriteBehind(BiConsumer<String, Employee> writer, int maxPending, int flushSize,
+                        Duration flushInterval, int flushConcurrency) {
+        if (maxPending < flushSize || flushSize < 1 || flushConcurrency < 1) {
+            throw new IllegalArgumentException("write-behind needs 1 <= flush-size <= max-pending and flush-concurrency >= 1");
+        }
+        this.writer = writer;
+        this.maxPending = maxPending;
+        this.flushSize = flushSize;
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(daemon("employee-write-behind-flush"));
+        this.writers = Executors.newFixedThreadPool(flushConcurrency, daemon("employee-write-behind-writer"));
+        long intervalMillis = flushInterval.toMillis();
+        flushScheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    //false when the buffer is full or closed, the caller then writes through itself
+    boolean submit(String id, Employee employee) {
+        int size;
+        lock.lock();
+        try {
+            if (closed || (pending.size() >= maxPending && !pending.containsKey(id))) {
+                return false;
+            }
+            pending.put(id, employee);
+            size = pending.size();
+        } finally {
+            lock.unlock();
+        }
+        if (size >= flushSize) {
+            flushScheduler.execute(this::flushQuietly);
+        }
+        return true;
+    }
+
+    int pendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //writes what was buffered when it started, batch by batch, and returns how many ids were written.
+    //updates buffered meanwhile wait for the next flush
+    int flush() {
+        flushLock.lock();
+        try {
+            int written = 0;
+            int remaining = pendingCount();
+            List<Map.Entry<String, Employee>> batch;
+            while (remaining > 0 && !(batch = takeBatch()).isEmpty()) {
+                remaining -= batch.size();
+                written += write(batch);
+            }
+            return written;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        flushScheduler.shutdownNow();
+        int written = 0;
+        //a few rounds for the updates that lost a race and were buffered again
+        for (int round = 0; round < 3 && pendingCount() > 0; round++) {
+            written += flush();
+        }
+        if (pendingCount() > 0) {
+            log.warn("Write-behind closed with {} employee updates not written", pendingCount());
+        }
+        writers.shutdown();
+        log.info("Write-behind closed, {} buffered employee updates written", written);
+    }
+
+    private List<Map.Entry<String, Employee>> takeBatch() {
+        lock.lock();
+        try {
+            List<Map.Entry<String, Employee>> batch = new ArrayList<>(Math.min(flushSize, pending.size()));
+            var iterator = pending.entrySet().iterator();
+            while (iterator.hasNext() && batch.size() < flushSize) {
+                Map.Entry<String, Employee> entry = iterator.next();
+                batch.add(Map.entry(entry.getKey(), entry.getValue()));
+                iterator.remove();
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //a write that kept losing the cas race through its retries is buffered again unless a newer update already is, any other failure is
+    //logged and dropped, its caller was answered long ago
+    private int write(List<Map.Entry<String, Employee>> batch) {
+        AtomicInteger written = new AtomicInteger();
+        CompletableFuture<?>[] writes = batch.stream()
+                .map(entry -> CompletableFuture.runAsync(() -> {
+                    try {
+                        writer.accept(entry.getKey(), entry.getValue());
+                        written.incrementAndGet();
+                    } catch (EmployeeUpdateConflictException e) {
+                        requeue(entry.getKey(), entry.getValue());
+                    } catch (RuntimeException e) {
+                        log.warn("Dropping buffered update of employee {}: {}", entry.getKey(), e.getMessage());
+                    }
+                }, writers))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(writes).join();
+        return written.get();
+    }
+
+    private void requeue(String id, Employee employee) {
+        lock.lock();
+        try {
+            pending.putIfAbsent(id, employee);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Write-behind flush failed", e);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
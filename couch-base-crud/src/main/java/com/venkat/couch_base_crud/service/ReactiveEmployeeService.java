@@ -0,0 +1,149 @@
+package com.venkat.couch_base_crud.service;
+
+import com.venkat.couch_base_crud.exception.CouchbaseOperationException;
+import com.venkat.couch_base_crud.exception.EmployeeAlreadyExistsException;
+import com.venkat.couch_base_crud.exception.EmployeeNotFoundException;
+import com.venkat.couch_base_crud.exception.EmployeeUpdateConflictException;
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.repository.ReactiveEmployeeRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.Optional;
+import java.util.UUID;
+
+//non-blocking counterpart of EmployeeService, same rules and errors
+@Service
+@Profile("reactive")
+public class ReactiveEmployeeService {
+
+    private final ReactiveEmployeeRepository employeeRepository;
+
+    public ReactiveEmployeeService(ReactiveEmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
+    }
+
+    public Flux<Employee> getAllEmployees() {
+        return employeeRepository.findAll()
+                .switchIfEmpty(Flux.error(() -> new CouchbaseOperationException("No employees found")))
+                .onErrorMap(DataAccessException.class, e -> new CouchbaseOperationException("Unable to fetch employees"));
+    }
+
+    public Mono<Employee> getEmployeeById(String id) {
+        return Mono.fromRunnable(() -> EmployeeService.requireEmployeeKey(id))
+                .then(Mono.defer(() -> employeeRepository.findById(id)))
+                .onErrorMap(DataAccessException.class, e -> new CouchbaseOperationException("Unable to fetch employee"))
+                .switchIfEmpty(Mono.error(() -> new EmployeeNotFoundException("Employee with id " + id + " not found")));
+    }
+
+    public Mono<Employee> getEmployeeByEmail(String email) {
+        return employeeRepository.findEmailOwner(email)
+                .flatMap(employeeRepository::findById)
+                .filter(employee -> EmployeeService.sameEmail(employee.getEmail(), email))
+                .onErrorMap(DataAccessException.class, e -> new CouchbaseOperationException("Unable to fetch employee"))
+                .switchIfEmpty(Mono.error(() -> new EmployeeNotFoundException("Employee with email " + email + " not found")));
+    }
+
+    //creating employee
+    public Mono<Employee> createEmployee(Employee employee) {
+        return Mono.fromRunnable(() -> {
+                    EmployeeService.validateEmployeeData(employee);
+                    EmployeeService.validateEmployeeId(employee.getId());
+                    if (employee.getId() == null) {
+                        employee.setId(UUID.randomUUID().toString());
+                    }
+                    employee.setVersion(0);
+                })
+                .then(Mono.defer(() -> claimEmail(employee.getEmail(), employee.getId())))
+                .then(Mono.defer(() -> employeeRepository.save(employee)
+                        .onErrorMap(DuplicateKeyException.class, e -> new EmployeeAlreadyExistsException(
+                                "Employee with id " + employee.getId() + " already exists"))
+                        .onErrorResume(DataAccessException.class, e -> employeeRepository
+                                .removeEmailKey(employee.getEmail(), employee.getId())
+                                .then(Mono.error(e)))))
+                .onErrorMap(DataAccessException.class, e -> new CouchbaseOperationException("Unable to create employee"));
+    }
+
+    public Mono<Employee> updateEmployee(String id, Employee employee) {
+        return Mono.fromRunnable(() -> {
+                    EmployeeService.validateEmployeeData(employee);
+                    EmployeeService.requireEmployeeKey(id);
+                })
+                .then(Mono.defer(() -> employeeRepository.findById(id)))
+                .switchIfEmpty(Mono.error(() -> new EmployeeNotFoundException("Employee with id " + id + " not found")))
+                .flatMap(existingEmployee -> {
+                    String previousEmail = existingEmployee.getEmail();
+                    boolean emailChanged = !EmployeeService.sameEmail(previousEmail, employee.getEmail());
+                    existingEmployee.setFirstName(employee.getFirstName());
+                    existingEmployee.setLastName(employee.getLastName());
+                    existingEmployee.setEmail(employee.getEmail());
+                    existingEmployee.setAddress(employee.getAddress());
+                    if (!emailChanged) {
+                        return employeeRepository.save(existingEmployee);
+                    }
+                    return claimEmail(employee.getEmail(), id)
+                            .then(employeeRepository.save(existingEmployee))
+                            .flatMap(saved -> previousEmail == null
+                                    ? Mono.just(saved)
+                                    : employeeRepository.removeEmailKey(previousEmail, id).thenReturn(saved));
+                })
+                //no If-Match here either, a lost cas race is read and applied again like in EmployeeService
+                .retryWhen(Retry.max(EmployeeService.MAX_UPDATE_ATTEMPTS - 1)
+                        .filter(OptimisticLockingFailureException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> new EmployeeUpdateConflictException(
+                                "Employee with id " + id + " kept being modified concurrently, try again")))
+                .onErrorMap(DataAccessException.class, e -> new CouchbaseOperationException("Unable to update employee"));
+    }
+
+    public Mono<Void> deleteEmployee(String id) {
+        return Mono.fromRunnable(() -> EmployeeService.requireEmployeeKey(id))
+                .then(Mono.defer(() -> employeeRepository.findEmail(id)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())))
+                .flatMap(email -> employeeRepository.deleteById(id)
+                        .then(email.map(owned -> employeeRepository.removeEmailKey(owned, id)).orElse(Mono.empty())))
+                .onErrorMap(DataRetrievalFailureException.class, e -> new EmployeeNotFoundException(
+                        "Employee with id " + id + " not found"))
+                .onErrorMap(DataAccessException.class, e -> new CouchbaseOperationException("Unable to delete employee"));
+    }
+
+    //same claiming rules as EmployeeService, stale keys are taken over
+    private Mono<Void> claimEmail(String email, String employeeId) {
+        return employeeRepository.insertEmailKey(email, employeeId)
+                .flatMap(inserted -> inserted ? Mono.<Void>empty() : claimExistingEmail(email, employeeId));
+    }
+
+    private Mono<Void> claimExistingEmail(String email, String employeeId) {
+        return employeeRepository.findEmailOwner(email)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(owner -> {
+                    if (owner.isEmpty()) {
+                        //released between the insert and the get, try once more
+                        return employeeRepository.insertEmailKey(email, employeeId)
+                                .flatMap(inserted -> inserted ? Mono.<Void>empty() : Mono.error(emailTaken(email)));
+                    }
+                    if (owner.get().equals(employeeId)) {
+                        return Mono.<Void>empty();
+                    }
+                    return employeeRepository.findById(owner.get())
+                            .map(existing -> EmployeeService.sameEmail(existing.getEmail(), email))
+                            .defaultIfEmpty(false)
+                            .flatMap(ownerUsesEmail -> ownerUsesEmail
+                                    ? Mono.just(false)
+                                    : employeeRepository.replaceEmailOwner(email, owner.get(), employeeId))
+                            .flatMap(claimed -> claimed ? Mono.<Void>empty() : Mono.error(emailTaken(email)));
+                });
+    }
+
+    private EmployeeAlreadyExistsException emailTaken(String email) {
+        return new EmployeeAlreadyExistsException("Employee with email " + email + " already exists");
+    }
+}
@@ -0,0 +1,73 @@
+package com.venkat.couch_base_crud;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+//full application context with the in-memory repository, no couchbase needed
+@SpringBootTest(properties = {
+        "employee.in-memory.kv-latency=0ms",
+        "employee.in-memory.query-latency=0ms"})
+@ActiveProfiles("inmemory")
+@AutoConfigureMockMvc
+class InMemoryProfileTest {
+
+    private static final String EMPLOYEE_JSON = """
+            {
+                "firstName": "John",
+                "lastName": "Doe",
+                "email": "%s",
+                "address": ["123 Main St"]
+            }
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void crudRoundTrip_ShouldWorkWithoutCluster() throws Exception {
+        MvcResult created = mockMvc.perform(post("/employee/v1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(EMPLOYEE_JSON.formatted("round.trip@example.com")))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String id = JsonPath.read(created.getResponse().getContentAsString(), "$.id");
+
+        String etag = mockMvc.perform(get("/employee/v1/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(patch("/employee/v1/{id}", id)
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lastName\": \"Patched\"}"))
+                .andExpect(status().isNoContent());
+
+        //the patch changed the cas, the old ETag is stale now
+        mockMvc.perform(put("/employee/v1/{id}", id)
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(EMPLOYEE_JSON.formatted("round.trip@example.com")))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(post("/employee/v1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(EMPLOYEE_JSON.formatted("round.trip@example.com")))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(delete("/employee/v1/{id}", id))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/employee/v1/{id}", id))
+                .andExpect(status().isNotFound());
+    }
+}
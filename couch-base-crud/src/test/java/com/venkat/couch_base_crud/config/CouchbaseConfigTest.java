@@ -0,0 +1,116 @@
+package com.venkat.couch_base_crud.config;
+
+import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.java.env.ClusterEnvironment;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class CouchbaseConfigTest {
+
+    @Test
+    void configureEnvironment_ShouldApplyTunedSettings() {
+        // Arrange
+        @SuppressWarnings("unchecked")
+        CouchbaseConfig config = new CouchbaseConfig(mock(ObjectProvider.class), mock(ObjectProvider.class));
+        ReflectionTestUtils.setField(config, "connectTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(config, "kvTimeout", Duration.ofMillis(800));
+        ReflectionTestUtils.setField(config, "kvDurableTimeout", Duration.ofSeconds(4));
+        ReflectionTestUtils.setField(config, "queryTimeout", Duration.ofSeconds(20));
+        ReflectionTestUtils.setField(config, "numKvConnections", 4);
+        ReflectionTestUtils.setField(config, "dnsSrv", false);
+        ReflectionTestUtils.setField(config, "eventLoopThreads", 2);
+        ReflectionTestUtils.setField(config, "compressionEnabled", false);
+        ReflectionTestUtils.setField(config, "compressionMinSize", 32);
+        ReflectionTestUtils.setField(config, "compressionMinRatio", 0.83);
+        ReflectionTestUtils.setField(config, "orphanReportingEnabled", true);
+        ReflectionTestUtils.setField(config, "orphanEmitInterval", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(config, "orphanSampleSize", 5);
+        ClusterEnvironment.Builder builder = ClusterEnvironment.builder();
+
+        // Act
+        config.configureEnvironment(builder);
+        ClusterEnvironment environment = builder.build();
+
+        // Assert
+        try {
+            assertEquals(Duration.ofMillis(800), environment.timeoutConfig().kvTimeout());
+            assertEquals(Duration.ofSeconds(4), environment.timeoutConfig().kvDurableTimeout());
+            assertEquals(Duration.ofSeconds(20), environment.timeoutConfig().queryTimeout());
+            assertEquals(4, environment.ioConfig().numKvConnections());
+            assertFalse(environment.ioConfig().dnsSrvEnabled());
+            assertFalse(environment.compressionConfig().enabled());
+        } finally {
+            environment.shutdown();
+        }
+    }
+
+    @Test
+    void configureEnvironment_ShouldReportRequestSpansAsObservations() {
+        // Arrange
+        List<Observation.Context> stopped = new CopyOnWriteArrayList<>();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                stopped.add(context);
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("observationRegistry", observationRegistry);
+        @SuppressWarnings("unchecked")
+        CouchbaseConfig config = new CouchbaseConfig(mock(ObjectProvider.class),
+                beanFactory.getBeanProvider(ObservationRegistry.class));
+        ReflectionTestUtils.setField(config, "observationTracing", true);
+        ReflectionTestUtils.setField(config, "connectTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(config, "kvTimeout", Duration.ofMillis(800));
+        ReflectionTestUtils.setField(config, "kvDurableTimeout", Duration.ofSeconds(4));
+        ReflectionTestUtils.setField(config, "queryTimeout", Duration.ofSeconds(20));
+        ReflectionTestUtils.setField(config, "numKvConnections", 1);
+        ReflectionTestUtils.setField(config, "compressionMinSize", 32);
+        ReflectionTestUtils.setField(config, "compressionMinRatio", 0.83);
+        ReflectionTestUtils.setField(config, "orphanEmitInterval", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(config, "orphanSampleSize", 10);
+        ClusterEnvironment.Builder builder = ClusterEnvironment.builder();
+        config.configureEnvironment(builder);
+        ClusterEnvironment environment = builder.build();
+
+        // Act
+        try {
+            RequestSpan get = environment.requestTracer().requestSpan("get", null);
+            get.attribute("db.couchbase.collection", "_default");
+            RequestSpan dispatch = environment.requestTracer().requestSpan("dispatch_to_server", get);
+            dispatch.end();
+            get.status(RequestSpan.StatusCode.OK);
+            get.end();
+        } finally {
+            environment.shutdown();
+        }
+
+        // Assert
+        assertEquals(2, stopped.size());
+        Observation.Context dispatchContext = stopped.get(0);
+        Observation.Context getContext = stopped.get(1);
+        assertEquals(MicrometerCouchbaseTracer.OBSERVATION_NAME, getContext.getName());
+        assertEquals("get", getContext.getContextualName());
+        assertEquals("ok", getContext.getLowCardinalityKeyValue("status").getValue());
+        assertEquals("_default", getContext.getHighCardinalityKeyValue("db.couchbase.collection").getValue());
+        assertSame(getContext, dispatchContext.getParentObservation().getContextView());
+    }
+}
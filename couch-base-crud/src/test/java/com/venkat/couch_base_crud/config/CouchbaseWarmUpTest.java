@@ -0,0 +1,100 @@
+package com.venkat.couch_base_crud.config;
+
+import com.couchbase.client.core.diagnostics.EndpointPingReport;
+import com.couchbase.client.core.diagnostics.PingResult;
+import com.couchbase.client.core.diagnostics.PingState;
+import com.couchbase.client.core.service.ServiceType;
+import com.couchbase.client.java.Bucket;
+import com.couchbase.client.java.Cluster;
+import com.venkat.couch_base_crud.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouchbaseWarmUpTest {
+
+    @Mock
+    private Cluster cluster;
+
+    @Mock
+    private Bucket bucket;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private CouchbaseWarmUp warmUp;
+
+    @BeforeEach
+    void setUp() {
+        warmUp = new CouchbaseWarmUp(cluster, "mycompany", employeeRepository, Duration.ofSeconds(1), Duration.ofMillis(1));
+        when(cluster.bucket("mycompany")).thenReturn(bucket);
+    }
+
+    @Test
+    void warmUp_WhenEveryStepSucceeds_ShouldBeUp() {
+        // Arrange
+        when(bucket.ping(any())).thenReturn(ping(PingState.OK, PingState.OK));
+
+        // Act
+        boolean done = warmUp.warmUp();
+
+        // Assert
+        assertTrue(done);
+        assertEquals(Status.UP, warmUp.health().getStatus());
+        verify(bucket).waitUntilReady(eq(Duration.ofSeconds(1)), any());
+        verify(employeeRepository).prepareQueries();
+        verifyNoMoreInteractions(employeeRepository);
+    }
+
+    @Test
+    void warmUp_WithUnreachableKvEndpoint_ShouldStayOutOfService() {
+        // Arrange
+        when(bucket.ping(any())).thenReturn(ping(PingState.OK, PingState.TIMEOUT));
+
+        // Act
+        boolean done = warmUp.warmUp();
+
+        // Assert
+        assertFalse(done);
+        assertEquals(Status.OUT_OF_SERVICE, warmUp.health().getStatus());
+        assertEquals("pinging kv endpoints", warmUp.health().getDetails().get("step"));
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void warmUpUntilDone_WhenPreparingFailsOnce_ShouldRetry() {
+        // Arrange
+        when(bucket.ping(any())).thenReturn(ping(PingState.OK));
+        doThrow(new IllegalStateException("query service not ready")).doNothing().when(employeeRepository).prepareQueries();
+
+        // Act
+        warmUp.warmUpUntilDone();
+
+        // Assert
+        assertEquals(Status.UP, warmUp.health().getStatus());
+        verify(employeeRepository, times(2)).prepareQueries();
+    }
+
+    private static PingResult ping(PingState... states) {
+        List<EndpointPingReport> endpoints = Arrays.stream(states)
+                .map(state -> new EndpointPingReport(ServiceType.KV, "kv", "local", "remote", state,
+                        Optional.of("mycompany"), Duration.ofMillis(1), Optional.empty()))
+                .toList();
+        return new PingResult(Map.of(ServiceType.KV, endpoints), "java", "ping");
+    }
+}
@@ -0,0 +1,89 @@
+package com.venkat.couch_base_crud.config;
+
+import com.couchbase.client.java.json.JsonObject;
+import com.venkat.couch_base_crud.repository.EmployeeStatements;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeIndexManagerTest {
+
+    private final EmployeeIndexManager indexManager =
+            new EmployeeIndexManager(null, "mycompany", true, Duration.ofMinutes(1), false);
+
+    @Test
+    void createStatement_ShouldBeDeferredPartialIndex() {
+        EmployeeIndexManager.IndexDefinition email = indexManager.indexes().stream()
+                .filter(index -> index.name().equals("idx_employee_email_v2"))
+                .findFirst().orElseThrow();
+
+        assertEquals("CREATE INDEX `idx_employee_email_v2` IF NOT EXISTS ON `mycompany`(IFMISSINGORNULL(`em`, `email`))"
+                        + " WHERE (`_e` = 2 OR `_class` = \"com.venkat.couch_base_crud.model.Employee\")"
+                        + " WITH {\"defer_build\": true}",
+                indexManager.createStatement(email));
+    }
+
+    @Test
+    void indexes_ShouldProbeTheStatementsTheRepositorySends() {
+        EmployeeIndexManager.IndexDefinition id = indexManager.indexes().stream()
+                .filter(index -> index.name().equals("idx_employee_id_v2"))
+                .findFirst().orElseThrow();
+
+        assertEquals(List.of(EmployeeStatements.selectEmployees("`mycompany`"),
+                        EmployeeStatements.selectPageAfterId("`mycompany`"),
+                        EmployeeStatements.count("`mycompany`")),
+                id.probes().stream().map(EmployeeIndexManager.Probe::statement).toList());
+        assertEquals("SELECT META(`mycompany`).id AS __id, META(`mycompany`).cas AS __cas, `mycompany`.* FROM `mycompany`"
+                        + " WHERE (`_e` = 2 OR `_class` = \"com.venkat.couch_base_crud.model.Employee\")",
+                id.probes().get(0).statement());
+    }
+
+    @Test
+    void usesPrimaryScan_ShouldFindNestedPrimaryScanOperator() {
+        JsonObject plan = JsonObject.fromJson("""
+                {"#operator": "Sequence", "~children": [
+                  {"#operator": "PrimaryScan3", "index": "#primary"},
+                  {"#operator": "Fetch"}
+                ]}
+                """);
+
+        assertTrue(EmployeeIndexManager.usesPrimaryScan(plan));
+        assertTrue(EmployeeIndexManager.indexesUsed(plan).isEmpty());
+    }
+
+    @Test
+    void usesPrimaryScan_WithIndexScan_ShouldReportIndex() {
+        JsonObject plan = JsonObject.fromJson("""
+                {"#operator": "Sequence", "~children": [
+                  {"#operator": "IndexScan3", "index": "idx_employee_email", "spans": [{"exact": true}]},
+                  {"#operator": "Fetch"}
+                ]}
+                """);
+
+        assertFalse(EmployeeIndexManager.usesPrimaryScan(plan));
+        assertEquals(Set.of("idx_employee_email"), EmployeeIndexManager.indexesUsed(plan));
+    }
+
+    @Test
+    void fetchesDocuments_WithCoveringScan_ShouldBeFalse() {
+        JsonObject covered = JsonObject.fromJson("""
+                {"#operator": "Sequence", "~children": [
+                  {"#operator": "IndexScan3", "index": "idx_employee_first_name_search", "covers": ["cover ((`mycompany`.`firstName`))"]},
+                  {"#operator": "InitialProject"}
+                ]}
+                """);
+        JsonObject fetched = JsonObject.fromJson("""
+                {"#operator": "Sequence", "~children": [
+                  {"#operator": "IndexScan3", "index": "idx_employee_first_name_search"},
+                  {"#operator": "Fetch"}
+                ]}
+                """);
+
+        assertFalse(EmployeeIndexManager.fetchesDocuments(covered));
+        assertTrue(EmployeeIndexManager.fetchesDocuments(fetched));
+    }
+}
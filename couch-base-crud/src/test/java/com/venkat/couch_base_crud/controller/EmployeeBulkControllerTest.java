@@ -0,0 +1,106 @@
+package com.venkat.couch_base_crud.controller;
+
+import com.venkat.couch_base_crud.exception.GlobalExceptionHandler;
+import com.venkat.couch_base_crud.model.BulkItemResult;
+import com.venkat.couch_base_crud.model.BulkResult;
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.service.EmployeeBulkService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(EmployeeBulkController.class)
+@Import({ GlobalExceptionHandler.class})
+@AutoConfigureMockMvc(addFilters = false)
+class EmployeeBulkControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private EmployeeBulkService employeeBulkService;
+
+    private final String BULK_URL = "/employee/v1/bulk";
+
+    private final BulkResult mixedResult = new BulkResult(1, 1, List.of(
+            new BulkItemResult(0, "a", 201, null),
+            new BulkItemResult(1, null, 409, "Email exists")));
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createEmployees_WithJsonArray_ShouldReturnPerItemResults() throws Exception {
+        given(employeeBulkService.createEmployees(any(Iterator.class))).willReturn(mixedResult);
+
+        String employeesJson = """
+        [
+            {"firstName": "John", "lastName": "Doe", "email": "john@example.com", "address": ["1 Main St"]},
+            {"firstName": "Jane", "lastName": "Doe", "email": "jane@example.com", "address": ["2 Main St"]}
+        ]
+        """;
+
+        mockMvc.perform(post(BULK_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(employeesJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.items[1].status").value(409));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createEmployees_WithNdjson_ShouldReadEveryLine() throws Exception {
+        List<String> emails = new ArrayList<>();
+        given(employeeBulkService.createEmployees(any(Iterator.class))).willAnswer(invocation -> {
+            Iterator<Employee> employees = invocation.getArgument(0);
+            employees.forEachRemaining(employee -> emails.add(employee.getEmail()));
+            return mixedResult;
+        });
+
+        String employeesNdjson = """
+        {"firstName": "John", "lastName": "Doe", "email": "john@example.com", "address": ["1 Main St"]}
+        {"firstName": "Jane", "lastName": "Doe", "email": "jane@example.com", "address": ["2 Main St"]}
+        """;
+
+        mockMvc.perform(post(BULK_URL)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(employeesNdjson))
+                .andExpect(status().isOk());
+
+        assertEquals(List.of("john@example.com", "jane@example.com"), emails);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deleteEmployees_WithIdArray_ShouldPassIds() throws Exception {
+        given(employeeBulkService.deleteEmployees(any(Iterator.class))).willReturn(mixedResult);
+
+        mockMvc.perform(delete(BULK_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"a\", \"b\"]"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<Iterator<String>> ids = ArgumentCaptor.forClass(Iterator.class);
+        verify(employeeBulkService).deleteEmployees(ids.capture());
+        List<String> received = new ArrayList<>();
+        ids.getValue().forEachRemaining(received::add);
+        assertEquals(List.of("a", "b"), received);
+    }
+}
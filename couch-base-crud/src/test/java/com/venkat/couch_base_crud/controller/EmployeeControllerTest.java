@@ -2,6 +2,10 @@ package com.venkat.couch_base_crud.controller;
 
 import com.venkat.couch_base_crud.exception.*;
 import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.model.EmployeeBatch;
+import com.venkat.couch_base_crud.model.EmployeeConsistency;
+import com.venkat.couch_base_crud.model.EmployeePage;
+import com.venkat.couch_base_crud.model.EmployeeSearchPage;
 import com.venkat.couch_base_crud.service.EmployeeService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,7 +15,11 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -20,6 +28,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
 import java.util.UUID;
 
 import static org.mockito.BDDMockito.given;
@@ -48,7 +58,7 @@ class EmployeeControllerTest {
     @Test
     void getAllEmployees_ShouldReturnEmployees() throws Exception {
 
-        given(employeeService.getAllEmployees())
+        given(employeeService.getAllEmployees(EmployeeConsistency.NOT_BOUNDED))
                 .willReturn(Arrays.asList(mockEmployee));
 
         mockMvc.perform(get(BASE_URL))
@@ -56,13 +66,13 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("$[0].id").value(EMPLOYEE_ID))
                 .andExpect(jsonPath("$[0].firstName").value("John"));
 
-        verify(employeeService).getAllEmployees();
+        verify(employeeService).getAllEmployees(EmployeeConsistency.NOT_BOUNDED);
     }
 
     @Test
     void getAllEmployees_WhenEmpty_ShouldReturnEmptyList() throws Exception {
 
-        given(employeeService.getAllEmployees())
+        given(employeeService.getAllEmployees(EmployeeConsistency.NOT_BOUNDED))
                 .willReturn(List.of());
 
         mockMvc.perform(get(BASE_URL))
@@ -70,7 +80,83 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$").isEmpty());
 
-        verify(employeeService).getAllEmployees();
+        verify(employeeService).getAllEmployees(EmployeeConsistency.NOT_BOUNDED);
+    }
+
+    @Test
+    void getEmployeePage_ShouldReturnItemsAndCursor() throws Exception {
+        given(employeeService.getEmployeePage("abc", 10, EmployeeConsistency.NOT_BOUNDED))
+                .willReturn(new EmployeePage(List.of(mockEmployee), "next"));
+
+        mockMvc.perform(get(BASE_URL + "/page").param("cursor", "abc").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(EMPLOYEE_ID))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void getEmployeePage_WithConsistency_ShouldPassItToService() throws Exception {
+        given(employeeService.getEmployeePage(null, null, EmployeeConsistency.REQUEST_PLUS))
+                .willReturn(new EmployeePage(List.of(mockEmployee), null));
+
+        mockMvc.perform(get(BASE_URL + "/page").param("consistency", "request_plus"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(EMPLOYEE_ID));
+    }
+
+    @Test
+    void getAllEmployees_WithUnknownConsistency_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(BASE_URL).param("consistency", "eventually"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    void searchEmployees_ShouldReturnProjectedItems() throws Exception {
+        given(employeeService.searchEmployees("Jo", null, "id,email", null, 20, EmployeeConsistency.NOT_BOUNDED))
+                .willReturn(new EmployeeSearchPage(
+                        List.of(Map.of("id", EMPLOYEE_ID, "email", "john.doe@example.com")), "next"));
+
+        mockMvc.perform(get(BASE_URL + "/search")
+                        .param("firstName", "Jo").param("fields", "id,email").param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].email").value("john.doe@example.com"))
+                .andExpect(jsonPath("$.items[0].firstName").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void getEmployeesByIds_ShouldReturnFoundAndMissing() throws Exception {
+        given(employeeService.getEmployeesByIds(List.of(EMPLOYEE_ID, "missing")))
+                .willReturn(new EmployeeBatch(List.of(mockEmployee), List.of("missing")));
+
+        mockMvc.perform(post(BASE_URL + "/_mget")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"" + EMPLOYEE_ID + "\", \"missing\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(EMPLOYEE_ID))
+                .andExpect(jsonPath("$.missing[0]").value("missing"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAllEmployees_ShouldWriteNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(1);
+            consumer.accept(mockEmployee);
+            consumer.accept(mockEmployee);
+            return null;
+        }).when(employeeService).streamAllEmployees(eq(EmployeeConsistency.NOT_BOUNDED), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get(BASE_URL + "/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\n{\"id\":\"" + EMPLOYEE_ID)));
     }
 
     @Test
@@ -86,6 +172,33 @@ class EmployeeControllerTest {
         verify(employeeService).getEmployeeById(EMPLOYEE_ID);
     }
 
+    @Test
+    void getEmployeeById_WithMatchingIfNoneMatch_ShouldReturn304WithoutBody() throws Exception {
+        given(employeeService.getEmployeeVersion(EMPLOYEE_ID))
+                .willReturn(OptionalLong.of(42L));
+
+        mockMvc.perform(get(BASE_URL + "/{id}", EMPLOYEE_ID).header("If-None-Match", "\"41\", W/\"42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"42\""))
+                .andExpect(content().string(""));
+
+        verify(employeeService, never()).getEmployeeById(any());
+    }
+
+    @Test
+    void getEmployeeById_WithStaleIfNoneMatch_ShouldReturnEmployee() throws Exception {
+        mockEmployee.setVersion(43L);
+        given(employeeService.getEmployeeVersion(EMPLOYEE_ID))
+                .willReturn(OptionalLong.of(43L));
+        given(employeeService.getEmployeeById(EMPLOYEE_ID))
+                .willReturn(mockEmployee);
+
+        mockMvc.perform(get(BASE_URL + "/{id}", EMPLOYEE_ID).header("If-None-Match", "\"42\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"43\""))
+                .andExpect(jsonPath("$.id").value(EMPLOYEE_ID));
+    }
+
     @Test
     void getEmployeeById_WhenNotFound_ShouldReturn404() throws Exception {
         given(employeeService.getEmployeeById("nonexistent-id"))
@@ -148,6 +261,7 @@ class EmployeeControllerTest {
                 "Updated",
                 "john.updated@example.com",
                 new String[]{"456 New St"});
+        updatedEmployee.setVersion(43L);
 
         given(employeeService.updateEmployee(eq(EMPLOYEE_ID), any(Employee.class)))
                 .willReturn(updatedEmployee);
@@ -171,6 +285,134 @@ class EmployeeControllerTest {
         verify(employeeService).updateEmployee(eq(EMPLOYEE_ID), any(Employee.class));
     }
 
+    @Test
+    void updateEmployee_BufferedByWriteBehind_ShouldReturnAcceptedWithoutETag() throws Exception {
+        Employee buffered = new Employee(EMPLOYEE_ID, "John", "Updated", "john.updated@example.com", new String[]{"456 New St"});
+        given(employeeService.updateEmployee(eq(EMPLOYEE_ID), any(Employee.class)))
+                .willReturn(buffered);
+
+        mockMvc.perform(put(BASE_URL + "/{id}", EMPLOYEE_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                        {"firstName": "John", "lastName": "Updated", "email": "john.updated@example.com", "address": ["456 New St"]}
+                        """))
+                .andExpect(status().isAccepted())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.lastName").value("Updated"));
+    }
+
+    @Test
+    void getEmployeeById_ShouldReturnCasAsETag() throws Exception {
+        Employee versioned = new Employee(EMPLOYEE_ID, "John", "Doe", "john.doe@example.com", new String[]{"123 Main St"});
+        versioned.setVersion(42L);
+        given(employeeService.getEmployeeById(EMPLOYEE_ID))
+                .willReturn(versioned);
+
+        mockMvc.perform(get(BASE_URL + "/{id}", EMPLOYEE_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"42\""))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    void updateEmployee_WithIfMatch_ShouldReplaceWithCas() throws Exception {
+        Employee replaced = new Employee(EMPLOYEE_ID, "John", "Doe", "john.doe@example.com", new String[]{"123 Main St"});
+        replaced.setVersion(43L);
+        given(employeeService.replaceEmployee(eq(EMPLOYEE_ID), any(Employee.class), eq(42L)))
+                .willReturn(replaced);
+
+        mockMvc.perform(put(BASE_URL + "/{id}", EMPLOYEE_ID)
+                        .header("If-Match", "\"42\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                        {"firstName": "John", "lastName": "Doe", "email": "john.doe@example.com", "address": ["123 Main St"]}
+                        """))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"43\""));
+
+        verify(employeeService, never()).updateEmployee(any(), any());
+    }
+
+    @Test
+    void getEmployeeById_WhenShed_ShouldReturn503WithRetryAfter() throws Exception {
+        given(employeeService.getEmployeeById(EMPLOYEE_ID))
+                .willThrow(new EmployeeOverloadedException("Too many concurrent kv-read requests", 1));
+
+        mockMvc.perform(get(BASE_URL + "/{id}", EMPLOYEE_ID))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.error").value("Service Unavailable"));
+    }
+
+    @Test
+    void updateEmployee_WithoutIfMatchWhenAlwaysModified_ShouldReturn409() throws Exception {
+        given(employeeService.updateEmployee(eq(EMPLOYEE_ID), any(Employee.class)))
+                .willThrow(new EmployeeUpdateConflictException("kept being modified concurrently"));
+
+        mockMvc.perform(put(BASE_URL + "/{id}", EMPLOYEE_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                        {"firstName": "John", "lastName": "Doe", "email": "john.doe@example.com", "address": ["123 Main St"]}
+                        """))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Conflict"));
+    }
+
+    @Test
+    void updateEmployee_WithWeakIfMatch_ShouldReturn412WithoutWriting() throws Exception {
+        mockMvc.perform(put(BASE_URL + "/{id}", EMPLOYEE_ID)
+                        .header("If-Match", "W/\"41\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                        {"firstName": "John", "lastName": "Doe", "email": "john.doe@example.com", "address": ["123 Main St"]}
+                        """))
+                .andExpect(status().isPreconditionFailed());
+
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    void updateEmployee_WithStaleIfMatch_ShouldReturn412() throws Exception {
+        given(employeeService.replaceEmployee(eq(EMPLOYEE_ID), any(Employee.class), eq(41L)))
+                .willThrow(new EmployeeVersionConflictException("modified concurrently"));
+
+        mockMvc.perform(put(BASE_URL + "/{id}", EMPLOYEE_ID)
+                        .header("If-Match", "\"41\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                        {"firstName": "John", "lastName": "Doe", "email": "john.doe@example.com", "address": ["123 Main St"]}
+                        """))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error").value("Precondition Failed"));
+    }
+
+    @Test
+    void updateEmployee_WithMalformedIfMatch_ShouldReturn400() throws Exception {
+        mockMvc.perform(put(BASE_URL + "/{id}", EMPLOYEE_ID)
+                        .header("If-Match", "not-an-etag")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    void patchEmployee_ShouldReturnNoContentWithNewETag() throws Exception {
+        given(employeeService.patchEmployee(eq(EMPLOYEE_ID), any(Employee.class), eq(42L)))
+                .willReturn(43L);
+
+        mockMvc.perform(patch(BASE_URL + "/{id}", EMPLOYEE_ID)
+                        .header("If-Match", "\"42\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lastName\": \"Updated\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("ETag", "\"43\""));
+
+        verify(employeeService).patchEmployee(eq(EMPLOYEE_ID),
+                argThat(changes -> "Updated".equals(changes.getLastName()) && changes.getEmail() == null), eq(42L));
+    }
+
     @Test
     void deleteEmployee_ShouldReturnNoContent() throws Exception {
         doNothing().when(employeeService).deleteEmployee(EMPLOYEE_ID);
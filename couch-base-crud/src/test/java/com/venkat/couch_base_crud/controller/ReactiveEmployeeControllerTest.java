@@ -0,0 +1,117 @@
+package com.venkat.couch_base_crud.controller;
+
+import com.venkat.couch_base_crud.exception.EmployeeAlreadyExistsException;
+import com.venkat.couch_base_crud.exception.EmployeeNotFoundException;
+import com.venkat.couch_base_crud.exception.ReactiveGlobalExceptionHandler;
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.service.ReactiveEmployeeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@WebFluxTest(ReactiveEmployeeController.class)
+@ActiveProfiles("reactive")
+@Import({ ReactiveGlobalExceptionHandler.class})
+class ReactiveEmployeeControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private ReactiveEmployeeService employeeService;
+
+    private final String BASE_URL = "/employee/v2";
+    private final String EMPLOYEE_ID = UUID.randomUUID().toString();
+
+    private final Employee mockEmployee = new Employee(
+            EMPLOYEE_ID,
+            "John",
+            "Doe",
+            "john.doe@example.com",
+            new String[]{"123 Main St"});
+
+    @Test
+    void getAllEmployees_ShouldReturnEmployees() {
+        given(employeeService.getAllEmployees())
+                .willReturn(Flux.just(mockEmployee));
+
+        webTestClient.get().uri(BASE_URL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(EMPLOYEE_ID);
+    }
+
+    @Test
+    void streamAllEmployees_ShouldReturnNdjson() {
+        given(employeeService.getAllEmployees())
+                .willReturn(Flux.just(mockEmployee, mockEmployee));
+
+        webTestClient.get().uri(BASE_URL + "/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Employee.class).hasSize(2);
+    }
+
+    @Test
+    void getEmployeeById_WhenNotFound_ShouldReturn404() {
+        given(employeeService.getEmployeeById("nonexistent-id"))
+                .willReturn(Mono.error(new EmployeeNotFoundException("Not found")));
+
+        webTestClient.get().uri(BASE_URL + "/{id}", "nonexistent-id")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Not found");
+    }
+
+    @Test
+    void createEmployee_ShouldReturnCreated() {
+        given(employeeService.createEmployee(any(Employee.class)))
+                .willReturn(Mono.just(mockEmployee));
+
+        webTestClient.post().uri(BASE_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(mockEmployee)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(EMPLOYEE_ID);
+    }
+
+    @Test
+    void createEmployee_WithExistingEmail_ShouldReturnConflict() {
+        given(employeeService.createEmployee(any(Employee.class)))
+                .willReturn(Mono.error(new EmployeeAlreadyExistsException("Email exists")));
+
+        webTestClient.post().uri(BASE_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(mockEmployee)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void deleteEmployee_ShouldReturnNoContent() {
+        given(employeeService.deleteEmployee(EMPLOYEE_ID))
+                .willReturn(Mono.empty());
+
+        webTestClient.delete().uri(BASE_URL + "/{id}", EMPLOYEE_ID)
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+}
@@ -0,0 +1,77 @@
+package com.venkat.couch_base_crud.repository;
+
+import com.venkat.couch_base_crud.model.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeDocumentsTest {
+
+    private final Employee employee = new Employee("1", "John", "Doe", "john.doe@example.com",
+            new String[]{"221B Baker Street"});
+
+    @Test
+    void encode_Compact_ShouldUseShortNamesWithoutClass() {
+        Map<String, Object> content = EmployeeDocuments.encode(employee, EmployeeDocuments.Format.COMPACT);
+
+        assertEquals(Map.of("_e", 2, "fn", "John", "ln", "Doe", "em", "john.doe@example.com",
+                "ad", List.of("221B Baker Street")), content);
+    }
+
+    @Test
+    void encode_Json_ShouldMatchSpringDataMapping() {
+        Map<String, Object> content = EmployeeDocuments.encode(employee, EmployeeDocuments.Format.JSON);
+
+        assertEquals(Map.of("_class", Employee.class.getName(), "firstName", "John", "lastName", "Doe",
+                "email", "john.doe@example.com", "address", List.of("221B Baker Street")), content);
+    }
+
+    @Test
+    void decode_ShouldReadBothFormats() {
+        for (EmployeeDocuments.Format format : EmployeeDocuments.Format.values()) {
+            Map<String, Object> content = EmployeeDocuments.encode(employee, format);
+
+            Employee decoded = EmployeeDocuments.decode("1", content);
+
+            assertTrue(EmployeeDocuments.isEmployee(content));
+            assertEquals(employee, decoded);
+        }
+    }
+
+    @Test
+    void isEmployee_WithEmailKeyDocument_ShouldBeFalse() {
+        assertFalse(EmployeeDocuments.isEmployee(Map.of("employeeId", "1")));
+    }
+
+    @Test
+    void patch_Json_ShouldNullShortNamesSoPatchedCompactDocumentsReadTheNewValue() {
+        Map<String, Object> compact = new LinkedHashMap<>(EmployeeDocuments.encode(employee, EmployeeDocuments.Format.COMPACT));
+
+        compact.putAll(EmployeeDocuments.patch(Map.of("firstName", "Jane"), EmployeeDocuments.Format.JSON));
+
+        assertEquals("Jane", EmployeeDocuments.decode("1", compact).getFirstName());
+        assertEquals("Doe", EmployeeDocuments.decode("1", compact).getLastName());
+    }
+
+    @Test
+    void patch_Compact_ShouldWinOverFullNamesOfJsonDocuments() {
+        Map<String, Object> json = new LinkedHashMap<>(EmployeeDocuments.encode(employee, EmployeeDocuments.Format.JSON));
+
+        json.putAll(EmployeeDocuments.patch(Map.of("firstName", "Jane"), EmployeeDocuments.Format.COMPACT));
+
+        assertEquals(Map.of("fn", "Jane"), EmployeeDocuments.patch(Map.of("firstName", "Jane"), EmployeeDocuments.Format.COMPACT));
+        assertEquals("Jane", EmployeeDocuments.decode("1", json).getFirstName());
+    }
+
+    @Test
+    void filter_ShouldNameTheEmployeeClass() {
+        assertTrue(EmployeeDocuments.FILTER.contains("`_class` = \"" + Employee.class.getName() + "\""));
+        assertEquals(EmployeeDocuments.FIRST_NAME, EmployeeDocuments.field("firstName"));
+        assertEquals(EmployeeDocuments.LAST_NAME, EmployeeDocuments.field("lastName"));
+        assertEquals(EmployeeDocuments.EMAIL, EmployeeDocuments.field("email"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.venkat.couch_base_crud.repository;
+
+import com.couchbase.client.core.msg.kv.MutationToken;
+import com.couchbase.client.java.kv.MutationState;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeMutationTokensTest {
+
+    private final EmployeeMutationTokens tokens = new EmployeeMutationTokens();
+
+    @Test
+    void state_WithoutWrites_ShouldBeEmpty() {
+        tokens.record(Optional.empty());
+
+        assertTrue(tokens.state().isEmpty());
+    }
+
+    @Test
+    void record_ShouldKeepHighestSequencePerVbucket() {
+        tokens.record(Optional.of(token(1, 10, 5)));
+        tokens.record(Optional.of(token(1, 10, 3)));
+        tokens.record(Optional.of(token(2, 20, 1)));
+
+        List<MutationToken> state = tokens(tokens.state().orElseThrow());
+
+        assertEquals(2, state.size());
+        assertTrue(state.contains(token(1, 10, 5)));
+        assertTrue(state.contains(token(2, 20, 1)));
+    }
+
+    @Test
+    void record_AfterFailover_ShouldTakeTokenWithNewUuid() {
+        tokens.record(Optional.of(token(1, 10, 50)));
+        tokens.record(Optional.of(token(1, 11, 2)));
+
+        assertEquals(List.of(token(1, 11, 2)), tokens(tokens.state().orElseThrow()));
+    }
+
+    private static MutationToken token(int vbucket, long uuid, long sequence) {
+        return new MutationToken((short) vbucket, uuid, sequence, "employees");
+    }
+
+    private static List<MutationToken> tokens(MutationState state) {
+        return StreamSupport.stream(state.spliterator(), false).toList();
+    }
+}
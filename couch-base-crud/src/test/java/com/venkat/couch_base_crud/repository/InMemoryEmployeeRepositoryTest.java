@@ -0,0 +1,127 @@
+package com.venkat.couch_base_crud.repository;
+
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.model.EmployeeConsistency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryEmployeeRepositoryTest {
+
+    private InMemoryEmployeeRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryEmployeeRepository(Duration.ZERO, Duration.ZERO);
+    }
+
+    @Test
+    void save_WithVersionZero_ShouldInsertAndAssignCas() {
+        Employee saved = repository.save(employee("1"));
+
+        assertNotEquals(0L, saved.getVersion());
+        assertEquals(saved.getVersion(), repository.findById("1").orElseThrow().getVersion());
+    }
+
+    @Test
+    void save_WithVersionZeroAndExistingId_ShouldFailLikeInsert() {
+        repository.save(employee("1"));
+
+        assertThrows(DuplicateKeyException.class, () -> repository.save(employee("1")));
+    }
+
+    @Test
+    void save_WithCurrentCas_ShouldReplace() {
+        repository.save(employee("1"));
+        Employee loaded = repository.findById("1").orElseThrow();
+        loaded.setLastName("Updated");
+
+        Employee saved = repository.save(loaded);
+
+        assertEquals("Updated", repository.findById("1").orElseThrow().getLastName());
+        assertEquals(saved.getVersion(), repository.findById("1").orElseThrow().getVersion());
+    }
+
+    @Test
+    void save_WithStaleCas_ShouldFailWithOptimisticLocking() {
+        repository.save(employee("1"));
+        Employee first = repository.findById("1").orElseThrow();
+        Employee second = repository.findById("1").orElseThrow();
+        repository.save(first);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> repository.save(second));
+    }
+
+    @Test
+    void save_WithCasForMissingDocument_ShouldFailWithNotFound() {
+        Employee employee = employee("missing");
+        employee.setVersion(5L);
+
+        assertThrows(DataRetrievalFailureException.class, () -> repository.save(employee));
+    }
+
+    @Test
+    void patchEmployee_ShouldCheckCasAndReturnNewOne() {
+        long cas = repository.save(employee("1")).getVersion();
+
+        OptionalLong patched = repository.patchEmployee("1", Map.of("lastName", "Patched"), cas);
+
+        assertTrue(patched.isPresent());
+        assertEquals("Patched", repository.findById("1").orElseThrow().getLastName());
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> repository.patchEmployee("1", Map.of("lastName", "Again"), cas));
+        assertTrue(repository.patchEmployee("missing", Map.of("lastName", "x"), 0L).isEmpty());
+    }
+
+    @Test
+    void deleteById_WithUnknownId_ShouldFailWithNotFound() {
+        assertThrows(DataRetrievalFailureException.class, () -> repository.deleteById("missing"));
+    }
+
+    @Test
+    void findEmail_ShouldReadOnlyTheEmailOfAnExistingEmployee() {
+        repository.save(employee("1"));
+
+        assertEquals(Optional.of("john.doe@example.com"), repository.findEmail("1"));
+        assertTrue(repository.findEmail("missing").isEmpty());
+    }
+
+    @Test
+    void emailKeys_ShouldBehaveLikeKvInsertAndCasReplace() {
+        assertTrue(repository.insertEmailKey("John.Doe@example.com", "1"));
+        assertFalse(repository.insertEmailKey("john.doe@example.com ", "2"));
+        assertFalse(repository.replaceEmailOwner("john.doe@example.com", "3", "2"));
+        assertTrue(repository.replaceEmailOwner("john.doe@example.com", "1", "2"));
+        assertEquals("2", repository.findEmailOwner("john.doe@example.com").orElseThrow());
+    }
+
+    @Test
+    void searchByName_ShouldMatchPrefixInNameOrderAndResumeAfterCursor() {
+        repository.save(new Employee("3", "Joan", "Smith", "joan@example.com", null));
+        repository.save(new Employee("2", "John", "Doe", "john.doe@example.com", null));
+        repository.save(new Employee("1", "John", "Roe", "john.roe@example.com", null));
+        repository.save(new Employee("4", "Mary", "Jones", "mary@example.com", null));
+
+        List<Map<String, Object>> first = repository.searchByName(new EmployeeNameSearch(
+                "Jo", null, List.of("email"), null, null, 2), EmployeeConsistency.NOT_BOUNDED);
+        List<Map<String, Object>> rest = repository.searchByName(new EmployeeNameSearch(
+                "Jo", null, List.of("email"), "John", "1", 2), EmployeeConsistency.NOT_BOUNDED);
+
+        assertEquals(List.of("3", "1"), first.stream().map(row -> row.get("id")).toList());
+        assertEquals(List.of("2"), rest.stream().map(row -> row.get("id")).toList());
+    }
+
+    private static Employee employee(String id) {
+        return new Employee(id, "John", "Doe", "john.doe@example.com", new String[]{"123 Main St"});
+    }
+}
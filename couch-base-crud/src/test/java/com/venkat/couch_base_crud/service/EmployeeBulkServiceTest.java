@@ -0,0 +1,211 @@
+package com.venkat.couch_base_crud.service;
+
+import com.venkat.couch_base_crud.exception.EmployeeAlreadyExistsException;
+import com.venkat.couch_base_crud.exception.EmployeeNotFoundException;
+import com.venkat.couch_base_crud.model.BulkResult;
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.service.EmployeeConcurrencyLimiter.Bulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeBulkServiceTest {
+
+    private static final int IN_FLIGHT = 4;
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private ThreadPoolTaskExecutor taskExecutor;
+    private EmployeeBulkService employeeBulkService;
+
+    @BeforeEach
+    void setUp() {
+        taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(16);
+        taskExecutor.initialize();
+        employeeBulkService = new EmployeeBulkService(employeeService, taskExecutor, IN_FLIGHT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskExecutor.shutdown();
+    }
+
+    private Employee employee(String id, String email) {
+        return new Employee(id, "John", "Doe", email, new String[]{"123 Main St"});
+    }
+
+    @Test
+    void createEmployees_ShouldReportEveryItemInRequestOrder() {
+        // Arrange
+        Employee first = employee(null, "first@example.com");
+        Employee duplicate = employee(null, "duplicate@example.com");
+        Employee third = employee(null, "third@example.com");
+        when(employeeService.createEmployee(first)).thenReturn(employee("a", "first@example.com"));
+        when(employeeService.createEmployee(duplicate))
+                .thenThrow(new EmployeeAlreadyExistsException("Email exists"));
+        when(employeeService.createEmployee(third)).thenReturn(employee("c", "third@example.com"));
+
+        // Act
+        BulkResult result = employeeBulkService.createEmployees(List.of(first, duplicate, third).iterator());
+
+        // Assert
+        assertEquals(2, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals("a", result.getItems().get(0).getId());
+        assertEquals(201, result.getItems().get(0).getStatus());
+        assertEquals(409, result.getItems().get(1).getStatus());
+        assertEquals("Email exists", result.getItems().get(1).getError());
+        assertEquals("c", result.getItems().get(2).getId());
+    }
+
+    @Test
+    void updateEmployees_WithoutId_ShouldFailOnlyThatItem() {
+        // Arrange
+        Employee withId = employee("1", "one@example.com");
+        when(employeeService.updateEmployee(eq("1"), any(Employee.class))).thenReturn(withId);
+
+        // Act
+        BulkResult result = employeeBulkService.updateEmployees(
+                List.of(withId, employee(null, "two@example.com")).iterator());
+
+        // Assert
+        assertEquals(200, result.getItems().get(0).getStatus());
+        assertEquals(400, result.getItems().get(1).getStatus());
+        verify(employeeService, times(1)).updateEmployee(any(), any(Employee.class));
+    }
+
+    @Test
+    void deleteEmployees_ShouldMapNotFoundPerItem() {
+        // Arrange
+        doNothing().when(employeeService).deleteEmployee("1");
+        doThrow(new EmployeeNotFoundException("Not found")).when(employeeService).deleteEmployee("missing");
+
+        // Act
+        BulkResult result = employeeBulkService.deleteEmployees(List.of("1", "missing").iterator());
+
+        // Assert
+        assertEquals(204, result.getItems().get(0).getStatus());
+        assertEquals(404, result.getItems().get(1).getStatus());
+        assertEquals("missing", result.getItems().get(1).getId());
+    }
+
+    @Test
+    void deleteEmployees_WithUnreadableItem_ShouldKeepResultsOfEarlierItems() {
+        // Arrange
+        Iterator<String> ids = List.of("1", "2").iterator();
+        Iterator<String> malformedAfterTwo = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                if (!ids.hasNext()) {
+                    throw new IllegalStateException("Unexpected character");
+                }
+                return true;
+            }
+
+            @Override
+            public String next() {
+                return ids.next();
+            }
+        };
+
+        // Act
+        BulkResult result = employeeBulkService.deleteEmployees(malformedAfterTwo);
+
+        // Assert
+        assertEquals(2, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals(204, result.getItems().get(1).getStatus());
+        assertEquals(400, result.getItems().get(2).getStatus());
+        assertEquals(2, result.getItems().get(2).getIndex());
+        verify(employeeService, times(2)).deleteEmployee(any());
+    }
+
+    @Test
+    void deleteEmployees_WhenExecutorQueueFull_ShouldAnswerItemWith503() {
+        // Arrange
+        EmployeeBulkService fullBulkService = new EmployeeBulkService(employeeService, runnable -> {
+            throw new RejectedExecutionException("queue full");
+        }, IN_FLIGHT);
+
+        // Act
+        BulkResult result = fullBulkService.deleteEmployees(List.of("1").iterator());
+
+        // Assert
+        assertEquals(1, result.getFailed());
+        assertEquals(503, result.getItems().get(0).getStatus());
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    void deleteEmployees_ShouldNeverExceedInFlightWindow() {
+        // Arrange
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        doAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            running.decrementAndGet();
+            return null;
+        }).when(employeeService).deleteEmployee(any());
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ids.add("id-" + i);
+        }
+
+        // Act
+        BulkResult result = employeeBulkService.deleteEmployees(ids.iterator());
+
+        // Assert
+        assertEquals(50, result.getSucceeded());
+        assertTrue(maxRunning.get() <= IN_FLIGHT);
+    }
+
+    @Test
+    void deleteEmployees_WithConcurrencyLimit_ShouldStayUnderKvWriteLimit() {
+        // Arrange
+        EmployeeConcurrencyLimiter limiter = new EmployeeConcurrencyLimiter(new SimpleMeterRegistry(), 2, 2, 2, 2, 2, 1.5, 1);
+        EmployeeBulkService limitedBulkService = new EmployeeBulkService(employeeService, taskExecutor, IN_FLIGHT, limiter);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        doAnswer(invocation -> limiter.call(Bulkhead.KV_WRITE, () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return null;
+        })).when(employeeService).deleteEmployee(any());
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ids.add("id-" + i);
+        }
+
+        // Act
+        BulkResult result = limitedBulkService.deleteEmployees(ids.iterator());
+
+        // Assert
+        assertEquals(50, result.getSucceeded());
+        assertEquals(0, result.getFailed());
+        assertTrue(maxRunning.get() <= 2);
+    }
+}
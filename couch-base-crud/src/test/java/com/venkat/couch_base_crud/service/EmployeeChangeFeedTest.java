@@ -0,0 +1,131 @@
+package com.venkat.couch_base_crud.service;
+
+import com.couchbase.client.dcp.highlevel.SnapshotMarker;
+import com.couchbase.client.dcp.highlevel.StreamOffset;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.model.EmployeeChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeChangeFeedTest {
+
+    @TempDir
+    Path directory;
+
+    private EmployeeChangeFeed changeFeed;
+
+    @BeforeEach
+    void setUp() {
+        changeFeed = feed();
+    }
+
+    @Test
+    void applyMutation_WithEmployeeDocument_ShouldAddToView() {
+        // Act
+        changeFeed.applyMutation("1", employeeJson("John"), 100L, 3, offset(5));
+
+        // Assert
+        Employee employee = changeFeed.getEmployee("1").orElseThrow();
+        assertEquals("John", employee.getFirstName());
+        assertEquals("1", employee.getId());
+        assertEquals(100L, employee.getVersion());
+    }
+
+    @Test
+    void applyMutation_WithCompactDocument_ShouldAddToView() {
+        // Act
+        changeFeed.applyMutation("1", "{\"_e\":2,\"fn\":\"John\",\"ln\":\"Doe\",\"em\":\"john.doe@example.com\",\"ad\":[\"Main Street 1\"]}"
+                .getBytes(StandardCharsets.UTF_8), 100L, 3, offset(5));
+
+        // Assert
+        Employee employee = changeFeed.getEmployee("1").orElseThrow();
+        assertEquals("John", employee.getFirstName());
+        assertArrayEquals(new String[]{"Main Street 1"}, employee.getAddress());
+    }
+
+    @Test
+    void applyMutation_WithOtherDocument_ShouldIgnoreIt() {
+        // Act
+        changeFeed.applyMutation("employee::email::john.doe@example.com",
+                "{\"employeeId\":\"1\"}".getBytes(StandardCharsets.UTF_8), 100L, 3, offset(5));
+
+        // Assert
+        assertEquals(0, changeFeed.size());
+    }
+
+    @Test
+    void applyDeletion_ShouldRemoveFromView() {
+        // Arrange
+        changeFeed.applyMutation("1", employeeJson("John"), 100L, 3, offset(5));
+
+        // Act
+        changeFeed.applyDeletion("1", 200L, 3, offset(6));
+
+        // Assert
+        assertTrue(changeFeed.getEmployee("1").isEmpty());
+    }
+
+    @Test
+    void changes_ShouldSendSnapshotThenLiveChanges() {
+        // Arrange
+        changeFeed.applyMutation("1", employeeJson("John"), 100L, 3, offset(5));
+
+        // Act & Assert
+        StepVerifier.create(changeFeed.changes())
+                .assertNext(change -> {
+                    assertEquals(EmployeeChange.Type.UPSERT, change.getType());
+                    assertEquals("1", change.getId());
+                    assertEquals(100L, change.getCas());
+                })
+                .assertNext(change -> assertEquals(EmployeeChange.Type.SNAPSHOT_END, change.getType()))
+                .then(() -> changeFeed.applyDeletion("1", 200L, 3, offset(6)))
+                .assertNext(change -> {
+                    assertEquals(EmployeeChange.Type.DELETE, change.getType());
+                    assertEquals(200L, change.getCas());
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void readCheckpoint_ShouldRestoreViewWrittenBefore() throws Exception {
+        // Arrange
+        changeFeed.applyMutation("1", employeeJson("John"), 100L, 3, offset(5));
+        changeFeed.applyMutation("2", employeeJson("Jane"), 101L, 4, offset(9));
+        changeFeed.writeCheckpoint();
+        EmployeeChangeFeed restarted = feed();
+
+        // Act
+        restarted.readCheckpoint();
+
+        // Assert
+        assertEquals(2, restarted.size());
+        Employee employee = restarted.getEmployee("2").orElseThrow();
+        assertEquals("Jane", employee.getFirstName());
+        assertEquals(101L, employee.getVersion());
+    }
+
+    private EmployeeChangeFeed feed() {
+        return new EmployeeChangeFeed("couchbase://localhost", "admin", "admin1234", "mycompany",
+                directory.resolve("checkpoint.json"), Duration.ofSeconds(10), 100, new ObjectMapper());
+    }
+
+    private static StreamOffset offset(long seqno) {
+        return new StreamOffset(42L, seqno, new SnapshotMarker(seqno, seqno), 0L);
+    }
+
+    private static byte[] employeeJson(String firstName) {
+        return ("{\"firstName\":\"" + firstName + "\",\"lastName\":\"Doe\",\"email\":\"doe@example.com\","
+                + "\"address\":[\"123 Main St\"],\"_class\":\"com.venkat.couch_base_crud.model.Employee\"}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,112 @@
+package com.venkat.couch_base_crud.service;
+
+import com.venkat.couch_base_crud.exception.EmployeeOverloadedException;
+import com.venkat.couch_base_crud.service.EmployeeConcurrencyLimiter.Bulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void call_WithBulkheadFull_ShouldShedWithRetryAfter() {
+        // Arrange
+        EmployeeConcurrencyLimiter limiter = new EmployeeConcurrencyLimiter(meterRegistry, 1, 1, 1, 1, 1, 1.5, 2);
+
+        // Act
+        EmployeeOverloadedException shed = assertThrows(EmployeeOverloadedException.class,
+                () -> limiter.call(Bulkhead.KV_READ, () -> limiter.call(Bulkhead.KV_READ, () -> "inner")));
+
+        // Assert
+        assertEquals(2, shed.getRetryAfterSeconds());
+        assertEquals(1, meterRegistry.get("employee.concurrency.shed").tag("bulkhead", "kv-read").counter().count());
+        assertEquals(0, meterRegistry.get("employee.concurrency.in.flight").tag("bulkhead", "kv-read").gauge().value());
+    }
+
+    @Test
+    void call_WithOtherBulkheadFull_ShouldStillAdmit() {
+        // Arrange
+        EmployeeConcurrencyLimiter limiter = new EmployeeConcurrencyLimiter(meterRegistry, 1, 1, 1, 1, 1, 1.5, 1);
+
+        // Act
+        String result = limiter.call(Bulkhead.QUERY, () -> limiter.call(Bulkhead.KV_READ, () -> "kv"));
+
+        // Assert
+        assertEquals("kv", result);
+    }
+
+    @Test
+    void acquire_ReleasedTwice_ShouldGiveBackOnePermit() {
+        // Arrange
+        EmployeeConcurrencyLimiter limiter = new EmployeeConcurrencyLimiter(meterRegistry, 2, 1, 2, 2, 2, 1.5, 1);
+        EmployeeConcurrencyLimiter.Permit held = limiter.acquire(Bulkhead.QUERY);
+        EmployeeConcurrencyLimiter.Permit early = limiter.acquire(Bulkhead.QUERY);
+
+        // Act
+        early.release();
+        early.release();
+
+        // Assert
+        assertEquals(1, limiter.inFlight(Bulkhead.QUERY));
+        held.release();
+        assertEquals(0, limiter.inFlight(Bulkhead.QUERY));
+    }
+
+    @Test
+    void limit_WithSteadyLatency_ShouldGrowToMax() {
+        // Arrange
+        AdaptiveLimit limit = new AdaptiveLimit(10, 4, 50, 1.5);
+
+        // Act
+        for (int i = 0; i < 200; i++) {
+            saturatedSample(limit, TimeUnit.MILLISECONDS.toNanos(2));
+        }
+
+        // Assert
+        assertEquals(50, limit.limit());
+    }
+
+    @Test
+    void limit_WhenLatencyRises_ShouldShrinkToMin() {
+        // Arrange
+        AdaptiveLimit limit = new AdaptiveLimit(40, 8, 50, 1.5);
+        for (int i = 0; i < 100; i++) {
+            saturatedSample(limit, TimeUnit.MILLISECONDS.toNanos(2));
+        }
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            saturatedSample(limit, TimeUnit.MILLISECONDS.toNanos(200));
+        }
+
+        // Assert
+        assertEquals(8, limit.limit());
+    }
+
+    @Test
+    void limit_WhenMostlyIdle_ShouldNotGrow() {
+        // Arrange
+        AdaptiveLimit limit = new AdaptiveLimit(10, 4, 50, 1.5);
+
+        // Act
+        for (int i = 0; i < 200; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(TimeUnit.MILLISECONDS.toNanos(2));
+        }
+
+        // Assert
+        assertEquals(10, limit.limit());
+    }
+
+    //keeps the limit in use, so every sample counts
+    private void saturatedSample(AdaptiveLimit limit, long rttNanos) {
+        while (limit.tryAcquire()) {
+        }
+        limit.release(rttNanos);
+    }
+}
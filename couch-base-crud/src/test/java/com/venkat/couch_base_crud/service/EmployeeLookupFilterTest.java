@@ -0,0 +1,90 @@
+package com.venkat.couch_base_crud.service;
+
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.repository.EmployeeRepository;
+import com.venkat.couch_base_crud.repository.InMemoryEmployeeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class EmployeeLookupFilterTest {
+
+    private final InMemoryEmployeeRepository employeeRepository = new InMemoryEmployeeRepository(Duration.ZERO, Duration.ZERO);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EmployeeLookupFilter lookupFilter;
+
+    @BeforeEach
+    void setUp() {
+        ObjectProvider<EmployeeChangeFeed> noChangeFeed = new StaticListableBeanFactory().getBeanProvider(EmployeeChangeFeed.class);
+        lookupFilter = new EmployeeLookupFilter(employeeRepository, noChangeFeed, meterRegistry, 1000, 0.01, 60_000);
+        employeeRepository.save(new Employee("1", "John", "Doe", "John.Doe@example.com", new String[]{"123 Main St"}));
+    }
+
+    @Test
+    void constructor_WithSharedBucketAndNoChangeFeed_ShouldFail() {
+        // Arrange
+        ObjectProvider<EmployeeChangeFeed> noChangeFeed = new StaticListableBeanFactory().getBeanProvider(EmployeeChangeFeed.class);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new EmployeeLookupFilter(mock(EmployeeRepository.class),
+                noChangeFeed, meterRegistry, 1000, 0.01, 60_000));
+    }
+
+    @Test
+    void mightHaveId_BeforeFirstScan_ShouldAlwaysBeTrue() {
+        assertTrue(lookupFilter.mightHaveId("unknown"));
+        assertTrue(lookupFilter.mightHaveEmail("unknown@example.com"));
+    }
+
+    @Test
+    void rebuild_ShouldHoldScannedIdsAndNormalizedEmails() {
+        // Act
+        lookupFilter.rebuild();
+
+        // Assert
+        assertTrue(lookupFilter.mightHaveId("1"));
+        assertTrue(lookupFilter.mightHaveEmail(" john.doe@EXAMPLE.com"));
+        assertFalse(lookupFilter.mightHaveId("unknown"));
+        assertFalse(lookupFilter.mightHaveEmail("unknown@example.com"));
+        assertEquals(1, meterRegistry.get("employee.lookup.filter.misses").tag("lookup", "id").counter().count());
+        assertEquals(1, meterRegistry.get("employee.lookup.filter.items").tag("lookup", "id").gauge().value());
+    }
+
+    @Test
+    void addId_AfterRebuild_ShouldBeFound() {
+        // Arrange
+        lookupFilter.rebuild();
+
+        // Act
+        lookupFilter.addId("2");
+        lookupFilter.addEmail("jane@example.com");
+
+        // Assert
+        assertTrue(lookupFilter.mightHaveId("2"));
+        assertTrue(lookupFilter.mightHaveEmail("jane@example.com"));
+    }
+
+    @Test
+    void bloomFilter_AtExpectedItems_ShouldStayNearConfiguredFalsePositiveRate() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.add("employee-" + i));
+
+        // Act
+        long falsePositives = IntStream.range(0, 100_000).filter(i -> filter.mightContain("other-" + i)).count();
+
+        // Assert
+        assertTrue(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("employee-" + i)));
+        assertTrue(falsePositives < 2_000, "false positives " + falsePositives);
+        assertEquals(0.01, filter.falsePositiveRate(), 0.005);
+        assertEquals(11984, filter.memoryBytes(), 64);
+    }
+}
@@ -0,0 +1,96 @@
+package com.venkat.couch_base_crud.service;
+
+import com.venkat.couch_base_crud.config.CacheConfig;
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+//read-through caching of getEmployeeById through the spring proxy
+@SpringJUnitConfig({CacheConfig.class, EmployeeService.class, EmployeeServiceCacheTest.CacheManagerConfig.class})
+class EmployeeServiceCacheTest {
+
+    @Configuration
+    static class CacheManagerConfig {
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.EMPLOYEE_CACHE);
+        }
+    }
+
+    @MockitoBean
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final Employee employee = new Employee(
+            "1", "John", "Doe", "john.doe@example.com", new String[]{"123 Main St"});
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.EMPLOYEE_CACHE).clear();
+    }
+
+    @Test
+    void getEmployeeById_CalledTwice_ShouldHitRepositoryOnce() {
+        when(employeeRepository.findById("1")).thenReturn(Optional.of(employee));
+
+        employeeService.getEmployeeById("1");
+        Employee cached = employeeService.getEmployeeById("1");
+
+        assertEquals("1", cached.getId());
+        verify(employeeRepository, times(1)).findById("1");
+    }
+
+    @Test
+    void getEmployeeVersion_WhenCached_ShouldNotTouchRepository() {
+        employee.setVersion(7L);
+        when(employeeRepository.findById("1")).thenReturn(Optional.of(employee));
+        employeeService.getEmployeeById("1");
+
+        assertEquals(OptionalLong.of(7L), employeeService.getEmployeeVersion("1"));
+        verify(employeeRepository, never()).findVersion("1");
+    }
+
+    @Test
+    void updateEmployee_ShouldInvalidateCachedEmployee() {
+        when(employeeRepository.findById("1")).thenReturn(Optional.of(employee));
+        when(employeeRepository.save(any(Employee.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        employeeService.getEmployeeById("1");
+        employeeService.updateEmployee("1", new Employee(
+                null, "Updated", "Doe", "john.doe@example.com", new String[]{"123 Main St"}));
+
+        assertNull(cacheManager.getCache(CacheConfig.EMPLOYEE_CACHE).get("1"));
+    }
+
+    @Test
+    void deleteEmployee_ShouldInvalidateCachedEmployee() {
+        when(employeeRepository.findById("1")).thenReturn(Optional.of(employee));
+
+        employeeService.getEmployeeById("1");
+        employeeService.deleteEmployee("1");
+
+        verify(employeeRepository).deleteById("1");
+
+        assertNull(cacheManager.getCache(CacheConfig.EMPLOYEE_CACHE).get("1"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.venkat.couch_base_crud.service;
+
+import com.venkat.couch_base_crud.config.MetricsConfig;
+import com.venkat.couch_base_crud.exception.EmployeeNotFoundException;
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.repository.EmployeeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+//@Timed on EmployeeService through the aspect proxy
+@SpringJUnitConfig({MetricsConfig.class, EmployeeService.class, EmployeeServiceMetricsTest.RegistryConfig.class})
+class EmployeeServiceMetricsTest {
+
+    @Configuration
+    @EnableAspectJAutoProxy
+    static class RegistryConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        CacheManager cacheManager() {
+            return new NoOpCacheManager();
+        }
+    }
+
+    @MockitoBean
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void serviceCalls_ShouldBeTimedPerMethodAndException() {
+        when(employeeRepository.findById("1")).thenReturn(Optional.of(new Employee(
+                "1", "John", "Doe", "john.doe@example.com", new String[]{"123 Main St"})));
+        when(employeeRepository.findById("missing")).thenReturn(Optional.empty());
+
+        employeeService.getEmployeeById("1");
+        assertThrows(EmployeeNotFoundException.class, () -> employeeService.getEmployeeById("missing"));
+
+        Timer succeeded = meterRegistry.get("employee.service")
+                .tag("method", "getEmployeeById").tag("exception", "none").timer();
+        Timer failed = meterRegistry.get("employee.service")
+                .tag("method", "getEmployeeById").tag("exception", "EmployeeNotFoundException").timer();
+        assertEquals(1, succeeded.count());
+        assertEquals(1, failed.count());
+    }
+}
@@ -3,31 +3,56 @@ package com.venkat.couch_base_crud.service;
 import com.venkat.couch_base_crud.exception.CouchbaseOperationException;
 import com.venkat.couch_base_crud.exception.EmployeeAlreadyExistsException;
 import com.venkat.couch_base_crud.exception.EmployeeNotFoundException;
+import com.venkat.couch_base_crud.exception.EmployeeUpdateConflictException;
+import com.venkat.couch_base_crud.exception.EmployeeVersionConflictException;
 import com.venkat.couch_base_crud.exception.InvalidEmployeeDataException;
 import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.model.EmployeeBatch;
+import com.venkat.couch_base_crud.model.EmployeeConsistency;
+import com.venkat.couch_base_crud.model.EmployeePage;
+import com.venkat.couch_base_crud.model.EmployeeSearchPage;
 import com.venkat.couch_base_crud.repository.EmployeeRepository;
+import com.venkat.couch_base_crud.service.EmployeeConcurrencyLimiter.Bulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class EmployeeServiceTest {
 
+    private static final String EMAIL_LOOKUP_KEY = "employee::email::john.doe@example.com";
+
     @Mock
     private EmployeeRepository employeeRepository;
 
-    @InjectMocks
+    @Mock
+    private CacheManager cacheManager;
+
     private EmployeeService employeeService;
 
     private Employee validEmployee;
@@ -35,6 +60,7 @@ class EmployeeServiceTest {
 
     @BeforeEach
     void setUp() {
+        employeeService = new EmployeeService(employeeRepository, cacheManager);
         validEmployee = new Employee(
                 "1", "John", "Doe", "john.doe@example.com",
                 new String[]{"123 Main St"});
@@ -47,8 +73,8 @@ class EmployeeServiceTest {
     @Test
     void createEmployee_WithValidData_ShouldReturnSavedEmployee() {
         // Arrange
-        when(employeeRepository.findByEmail(validEmployee.getEmail()))
-                .thenReturn(Optional.empty());
+        when(employeeRepository.insertEmailKey(validEmployee.getEmail(), "1"))
+                .thenReturn(true);
         when(employeeRepository.save(any(Employee.class)))
                 .thenReturn(validEmployee);
 
@@ -64,13 +90,77 @@ class EmployeeServiceTest {
     @Test
     void createEmployee_WithExistingEmail_ShouldThrowException() {
         // Arrange
-        when(employeeRepository.findByEmail(existingEmployee.getEmail()))
+        Employee sameEmail = new Employee(
+                null, "Janet", "Smith", existingEmployee.getEmail(), new String[]{"1 Elm St"});
+        when(employeeRepository.insertEmailKey(eq(existingEmployee.getEmail()), anyString()))
+                .thenReturn(false);
+        when(employeeRepository.findEmailOwner(existingEmployee.getEmail()))
+                .thenReturn(Optional.of("2"));
+        when(employeeRepository.findById("2"))
                 .thenReturn(Optional.of(existingEmployee));
 
         // Act & Assert
         assertThrows(EmployeeAlreadyExistsException.class, () -> {
-            employeeService.createEmployee(existingEmployee);
+            employeeService.createEmployee(sameEmail);
+        });
+        verify(employeeRepository, never()).save(any(Employee.class));
+    }
+
+    @Test
+    void createEmployee_WithExistingId_ShouldThrowWithoutReleasingEmailKey() {
+        // Arrange
+        validEmployee.setVersion(42L);
+        when(employeeRepository.insertEmailKey(validEmployee.getEmail(), "1"))
+                .thenReturn(false);
+        when(employeeRepository.findEmailOwner(validEmployee.getEmail()))
+                .thenReturn(Optional.of("1"));
+        when(employeeRepository.save(argThat(employee -> employee.getVersion() == 0)))
+                .thenThrow(new DuplicateKeyException("document exists"));
+
+        // Act & Assert
+        assertThrows(EmployeeAlreadyExistsException.class, () -> {
+            employeeService.createEmployee(validEmployee);
         });
+        verify(employeeRepository, never()).removeEmailKey(anyString(), anyString());
+    }
+
+    @Test
+    void createEmployee_WithStaleEmailKey_ShouldTakeOverKey() {
+        // Arrange
+        when(employeeRepository.insertEmailKey(validEmployee.getEmail(), "1"))
+                .thenReturn(false);
+        when(employeeRepository.findEmailOwner(validEmployee.getEmail()))
+                .thenReturn(Optional.of("deleted-id"));
+        when(employeeRepository.findById("deleted-id"))
+                .thenReturn(Optional.empty());
+        when(employeeRepository.replaceEmailOwner(validEmployee.getEmail(), "deleted-id", "1"))
+                .thenReturn(true);
+        when(employeeRepository.save(any(Employee.class)))
+                .thenReturn(validEmployee);
+
+        // Act
+        Employee result = employeeService.createEmployee(validEmployee);
+
+        // Assert
+        assertEquals("1", result.getId());
+    }
+
+    @Test
+    void createEmployee_WithoutId_ShouldAssignIdBeforeClaimingEmail() {
+        // Arrange
+        Employee newEmployee = new Employee(
+                null, "John", "Doe", "new@example.com", new String[]{"123 Main St"});
+        when(employeeRepository.insertEmailKey(eq("new@example.com"), anyString()))
+                .thenReturn(true);
+        when(employeeRepository.save(any(Employee.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Employee result = employeeService.createEmployee(newEmployee);
+
+        // Assert
+        assertNotNull(result.getId());
+        verify(employeeRepository).insertEmailKey("new@example.com", result.getId());
     }
 
     @Test
@@ -127,8 +217,8 @@ class EmployeeServiceTest {
 
         when(employeeRepository.findById("1"))
                 .thenReturn(Optional.of(validEmployee));
-        /*when(employeeRepository.findByEmail("updated@example.com"))
-                .thenReturn(Optional.empty());*/
+        when(employeeRepository.insertEmailKey("updated@example.com", "1"))
+                .thenReturn(true);
         when(employeeRepository.save(any(Employee.class)))
                 .thenReturn(updatedDetails);
 
@@ -139,34 +229,106 @@ class EmployeeServiceTest {
         assertNotNull(result);
         assertEquals("updated@example.com", result.getEmail());
         verify(employeeRepository, times(1)).save(any(Employee.class));
+        verify(employeeRepository).removeEmailKey("john.doe@example.com", "1");
     }
 
-    //delete employee, failed
+    @Test
+    void getEmployeeById_WithIdUnknownToLookupFilter_ShouldNotReadRepository() {
+        // Arrange
+        EmployeeLookupFilter lookupFilter = mock(EmployeeLookupFilter.class);
+        when(lookupFilter.mightHaveId("missing")).thenReturn(false);
+        EmployeeService filteredService = new EmployeeService(employeeRepository, cacheManager, lookupFilter, null,
+                false, 0, 0, 0, 0);
+
+        // Act & Assert
+        assertThrows(EmployeeNotFoundException.class, () -> filteredService.getEmployeeById("missing"));
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void createEmployee_WithLookupFilter_ShouldAddIdAndEmailBeforeWriting() {
+        // Arrange
+        EmployeeLookupFilter lookupFilter = mock(EmployeeLookupFilter.class);
+        EmployeeService filteredService = new EmployeeService(employeeRepository, cacheManager, lookupFilter, null,
+                false, 0, 0, 0, 0);
+        when(employeeRepository.insertEmailKey("john.doe@example.com", "1")).thenReturn(true);
+        when(employeeRepository.save(any(Employee.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        filteredService.createEmployee(validEmployee);
+
+        // Assert
+        var order = inOrder(lookupFilter, employeeRepository);
+        order.verify(lookupFilter).addId("1");
+        order.verify(lookupFilter).addEmail("john.doe@example.com");
+        order.verify(employeeRepository).save(validEmployee);
+    }
 
     @Test
-    void deleteEmployee_WithValidId_ShouldDeleteSuccessfully() {
+    void updateEmployee_WithWriteBehind_ShouldBufferAndWriteLatestOnFlush() {
         // Arrange
+        EmployeeService writeBehindService = new EmployeeService(employeeRepository, cacheManager, null, null,
+                true, 100, 100, Duration.ofHours(1).toMillis(), 2);
+        Employee first = new Employee(null, "John", "First", "john.doe@example.com", new String[]{"123 Main St"});
+        Employee second = new Employee(null, "John", "Second", "john.doe@example.com", new String[]{"123 Main St"});
         when(employeeRepository.findById("1"))
                 .thenReturn(Optional.of(validEmployee));
-        doNothing().when(employeeRepository).delete(validEmployee);
+        when(employeeRepository.save(any(Employee.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Employee accepted = writeBehindService.updateEmployee("1", first);
+        writeBehindService.updateEmployee("1", second);
+        verifyNoInteractions(employeeRepository);
+        writeBehindService.flushPendingUpdates();
+
+        // Assert
+        assertEquals(0, accepted.getVersion());
+        verify(employeeRepository, times(1)).save(argThat(saved -> "Second".equals(saved.getLastName())));
+    }
+
+    //delete employee, failed
+
+    @Test
+    void deleteEmployee_WithValidId_ShouldDeleteEmployeeAndItsEmailKey() {
+        // Arrange
+        when(employeeRepository.findEmail("1")).thenReturn(Optional.of("john.doe@example.com"));
 
         // Act
         employeeService.deleteEmployee("1");
 
         // Assert
-        verify(employeeRepository, times(1)).delete(validEmployee);
+        var order = inOrder(employeeRepository);
+        order.verify(employeeRepository).findEmail("1");
+        order.verify(employeeRepository).deleteById("1");
+        order.verify(employeeRepository).removeEmailKey("john.doe@example.com", "1");
+        verify(employeeRepository, never()).findById(anyString());
     }
 
     @Test
     void deleteEmployee_WithInvalidId_ShouldThrowException() {
         // Arrange
-        when(employeeRepository.findById("999"))
-                .thenReturn(Optional.empty());
+        when(employeeRepository.findEmail("999")).thenReturn(Optional.empty());
+        doThrow(new DataRetrievalFailureException("document not found"))
+                .when(employeeRepository).deleteById("999");
 
         // Act & Assert
         assertThrows(EmployeeNotFoundException.class, () -> {
             employeeService.deleteEmployee("999");
         });
+        verify(employeeRepository, never()).removeEmailKey(anyString(), anyString());
+    }
+
+    @Test
+    void deleteEmployee_WhenDeletedConcurrently_ShouldThrowNotFound() {
+        // Arrange
+        when(employeeRepository.findEmail("1")).thenReturn(Optional.of("john.doe@example.com"));
+        doThrow(new DataRetrievalFailureException("document not found"))
+                .when(employeeRepository).deleteById("1");
+
+        // Act & Assert
+        assertThrows(EmployeeNotFoundException.class, () -> employeeService.deleteEmployee("1"));
+        verify(employeeRepository, never()).removeEmailKey(anyString(), anyString());
     }
 
     //find by email
@@ -174,7 +336,9 @@ class EmployeeServiceTest {
     @Test
     void findByEmail_WithExistingEmail_ShouldReturnEmployee() {
         // Arrange
-        when(employeeRepository.findByEmail("john.doe@example.com"))
+        when(employeeRepository.findEmailOwner("john.doe@example.com"))
+                .thenReturn(Optional.of("1"));
+        when(employeeRepository.findById("1"))
                 .thenReturn(Optional.of(validEmployee));
 
         // Act
@@ -185,10 +349,24 @@ class EmployeeServiceTest {
         assertEquals("john.doe@example.com", result.getEmail());
     }
 
+    @Test
+    void findByEmail_WithStaleEmailKey_ShouldThrowException() {
+        // Arrange
+        when(employeeRepository.findEmailOwner("old@example.com"))
+                .thenReturn(Optional.of("1"));
+        when(employeeRepository.findById("1"))
+                .thenReturn(Optional.of(validEmployee));
+
+        // Act & Assert
+        assertThrows(EmployeeNotFoundException.class, () -> {
+            employeeService.getEmployeeByEmail("old@example.com");
+        });
+    }
+
     @Test
     void findByEmail_WithNonExistingEmail_ShouldThrowException() {
         // Arrange
-        when(employeeRepository.findByEmail("nonexistent@example.com"))
+        when(employeeRepository.findEmailOwner("nonexistent@example.com"))
                 .thenReturn(Optional.empty());
 
         // Act & Assert
@@ -224,11 +402,267 @@ class EmployeeServiceTest {
         verify(employeeRepository, times(1)).findAll();
     }
 
+    //pagination
+
+    @Test
+    void getEmployeePage_WhenMoreRowsExist_ShouldReturnNextCursor() {
+        // Arrange
+        when(employeeRepository.findPageAfterId("", 2))
+                .thenReturn(Arrays.asList(validEmployee, existingEmployee));
+
+        // Act
+        EmployeePage page = employeeService.getEmployeePage(null, 1);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertNotNull(page.getNextCursor());
+
+        when(employeeRepository.findPageAfterId("1", 2))
+                .thenReturn(List.of(existingEmployee));
+        EmployeePage next = employeeService.getEmployeePage(page.getNextCursor(), 1);
+        assertEquals("2", next.getItems().get(0).getId());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void getEmployeesByIds_ShouldKeepRequestOrderAndReportMissing() {
+        // Arrange
+        when(employeeRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(existingEmployee, validEmployee));
+
+        // Act
+        EmployeeBatch batch = employeeService.getEmployeesByIds(List.of("1", "missing", "2", "1"));
+
+        // Assert
+        assertEquals(List.of("1", "2"), batch.getItems().stream().map(Employee::getId).toList());
+        assertEquals(List.of("missing"), batch.getMissing());
+        verify(employeeRepository).findAllById(argThat(ids -> ids.spliterator().getExactSizeIfKnown() == 3));
+    }
+
+    @Test
+    void getEmployeeById_WithEmailLookupKey_ShouldNotReadIt() {
+        // Act & Assert
+        assertThrows(EmployeeNotFoundException.class, () -> employeeService.getEmployeeById(EMAIL_LOOKUP_KEY));
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void getEmployeeVersion_WithEmailLookupKey_ShouldBeEmpty() {
+        // Act
+        OptionalLong version = employeeService.getEmployeeVersion(EMAIL_LOOKUP_KEY);
+
+        // Assert
+        assertTrue(version.isEmpty());
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void getEmployeesByIds_WithEmailLookupKey_ShouldReportItMissingWithoutReading() {
+        // Arrange
+        when(employeeRepository.findAllById(List.of("1"))).thenReturn(List.of(validEmployee));
+
+        // Act
+        EmployeeBatch batch = employeeService.getEmployeesByIds(List.of("1", EMAIL_LOOKUP_KEY));
+
+        // Assert
+        assertEquals(List.of("1"), batch.getItems().stream().map(Employee::getId).toList());
+        assertEquals(List.of(EMAIL_LOOKUP_KEY), batch.getMissing());
+    }
+
+    @Test
+    void createEmployee_WithEmailLookupKeyAsId_ShouldThrowException() {
+        // Arrange
+        validEmployee.setId(EMAIL_LOOKUP_KEY);
+
+        // Act & Assert
+        assertThrows(InvalidEmployeeDataException.class, () -> employeeService.createEmployee(validEmployee));
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void updateEmployee_WithEmailLookupKey_ShouldNotWriteIt() {
+        // Act & Assert
+        assertThrows(EmployeeNotFoundException.class, () -> employeeService.updateEmployee(EMAIL_LOOKUP_KEY, validEmployee));
+        assertThrows(EmployeeNotFoundException.class, () -> employeeService.replaceEmployee(EMAIL_LOOKUP_KEY, validEmployee, 41L));
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void patchEmployee_WithEmailLookupKey_ShouldNotWriteIt() {
+        // Arrange
+        Employee changes = new Employee();
+        changes.setFirstName("Johnny");
+
+        // Act & Assert
+        assertThrows(EmployeeNotFoundException.class, () -> employeeService.patchEmployee(EMAIL_LOOKUP_KEY, changes, 0));
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void deleteEmployee_WithEmailLookupKey_ShouldNotDeleteIt() {
+        // Act & Assert
+        assertThrows(EmployeeNotFoundException.class, () -> employeeService.deleteEmployee(EMAIL_LOOKUP_KEY));
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void getEmployeesByIds_WithTooManyIds_ShouldThrowException() {
+        // Arrange
+        List<String> ids = IntStream.rangeClosed(0, EmployeeService.MAX_BATCH_SIZE)
+                .mapToObj(String::valueOf).toList();
+
+        // Act & Assert
+        assertThrows(InvalidEmployeeDataException.class, () -> {
+            employeeService.getEmployeesByIds(ids);
+        });
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void getEmployeePage_WithOversizedPage_ShouldCapPageSize() {
+        // Arrange
+        when(employeeRepository.findPageAfterId(anyString(), anyInt()))
+                .thenReturn(List.of());
+
+        // Act
+        employeeService.getEmployeePage(null, 1_000_000);
+
+        // Assert
+        verify(employeeRepository).findPageAfterId("", EmployeeService.MAX_PAGE_SIZE + 1);
+    }
+
+    @Test
+    void getEmployeePage_WithAtPlus_ShouldQueryAtThatConsistency() {
+        // Arrange
+        when(employeeRepository.findPageAfterId("", 11, EmployeeConsistency.AT_PLUS))
+                .thenReturn(List.of(validEmployee));
+
+        // Act
+        EmployeePage page = employeeService.getEmployeePage(null, 10, EmployeeConsistency.AT_PLUS);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        verify(employeeRepository, never()).findPageAfterId(anyString(), anyInt());
+    }
+
+    @Test
+    void getEmployeeVersion_WhenNotCached_ShouldAskRepositoryForCas() {
+        // Arrange
+        when(employeeRepository.findVersion("1")).thenReturn(OptionalLong.of(42L));
+
+        // Act
+        OptionalLong version = employeeService.getEmployeeVersion("1");
+
+        // Assert
+        assertEquals(OptionalLong.of(42L), version);
+        verify(employeeRepository, never()).findById(anyString());
+    }
+
+    //search
+
+    @Test
+    void searchEmployees_ShouldProjectFieldsAndResumeFromCursor() {
+        // Arrange
+        when(employeeRepository.searchByName(argThat(search -> search != null && search.afterId() == null),
+                eq(EmployeeConsistency.NOT_BOUNDED)))
+                .thenReturn(List.of(
+                        Map.of("id", "1", "firstName", "John", "email", "john.doe@example.com"),
+                        Map.of("id", "2", "firstName", "John", "email", "john.smith@example.com")));
+
+        // Act
+        EmployeeSearchPage page = employeeService.searchEmployees(
+                "Jo", null, "email", null, 1, EmployeeConsistency.NOT_BOUNDED);
+
+        // Assert
+        assertEquals(List.of(Map.of("email", "john.doe@example.com")), page.getItems());
+        assertNotNull(page.getNextCursor());
+
+        when(employeeRepository.searchByName(argThat(search -> search != null && "1".equals(search.afterId())),
+                eq(EmployeeConsistency.NOT_BOUNDED)))
+                .thenReturn(List.of(Map.of("id", "2", "firstName", "John", "email", "john.smith@example.com")));
+        EmployeeSearchPage next = employeeService.searchEmployees(
+                "Jo", null, "email", page.getNextCursor(), 1, EmployeeConsistency.NOT_BOUNDED);
+        assertEquals(List.of(Map.of("email", "john.smith@example.com")), next.getItems());
+        assertNull(next.getNextCursor());
+        verify(employeeRepository).searchByName(argThat(search -> "1".equals(search.afterId())
+                && "John".equals(search.afterName()) && search.limit() == 2), eq(EmployeeConsistency.NOT_BOUNDED));
+    }
+
+    @Test
+    void searchEmployees_WithoutName_ShouldThrowException() {
+        assertThrows(InvalidEmployeeDataException.class, () -> {
+            employeeService.searchEmployees(" ", null, null, null, null, EmployeeConsistency.NOT_BOUNDED);
+        });
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void searchEmployees_WithFieldOutsideIndex_ShouldThrowException() {
+        assertThrows(InvalidEmployeeDataException.class, () -> {
+            employeeService.searchEmployees("Jo", null, "id,address", null, null, EmployeeConsistency.NOT_BOUNDED);
+        });
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void getEmployeePage_WithInvalidCursor_ShouldThrowException() {
+        assertThrows(InvalidEmployeeDataException.class, () -> {
+            employeeService.getEmployeePage("not a cursor!", 10);
+        });
+    }
+
+    @Test
+    void streamAllEmployees_ShouldPassEveryEmployeeToConsumer() {
+        // Arrange
+        when(employeeRepository.streamAll())
+                .thenReturn(Stream.of(validEmployee, existingEmployee));
+        List<Employee> received = new ArrayList<>();
+
+        // Act
+        employeeService.streamAllEmployees(received::add);
+
+        // Assert
+        assertEquals(2, received.size());
+    }
+
+    @Test
+    void streamAllEmployees_WithConcurrencyLimit_ShouldReleaseQueryPermitAtFirstRow() {
+        // Arrange
+        EmployeeConcurrencyLimiter limiter = new EmployeeConcurrencyLimiter(new SimpleMeterRegistry(), 1, 1, 1, 1, 1, 1.5, 1);
+        EmployeeService limitedService = new EmployeeService(employeeRepository, cacheManager, null, limiter,
+                false, 0, 0, 0, 0);
+        when(employeeRepository.streamAll())
+                .thenReturn(Stream.of(validEmployee, existingEmployee));
+        List<Integer> queriesInFlight = new ArrayList<>();
+
+        // Act
+        limitedService.streamAllEmployees(employee -> queriesInFlight.add(limiter.inFlight(Bulkhead.QUERY)));
+
+        // Assert
+        assertEquals(List.of(0, 0), queriesInFlight);
+        assertEquals(0, limiter.inFlight(Bulkhead.QUERY));
+    }
+
+    @Test
+    void streamAllEmployees_WithRequestPlus_ShouldQueryAtThatConsistency() {
+        // Arrange
+        when(employeeRepository.streamAll(EmployeeConsistency.REQUEST_PLUS))
+                .thenReturn(Stream.of(validEmployee));
+        List<Employee> received = new ArrayList<>();
+
+        // Act
+        employeeService.streamAllEmployees(EmployeeConsistency.REQUEST_PLUS, received::add);
+
+        // Assert
+        assertEquals(1, received.size());
+        verify(employeeRepository, never()).streamAll();
+    }
+
     @Test
     void createEmployee_WhenDatabaseErrorOccurs_ShouldThrowCouchbaseException() {
         // Arrange
-        when(employeeRepository.findByEmail(validEmployee.getEmail()))
-                .thenReturn(Optional.empty());
+        when(employeeRepository.insertEmailKey(validEmployee.getEmail(), "1"))
+                .thenReturn(true);
         when(employeeRepository.save(any(Employee.class)))
                 .thenThrow(new CouchbaseOperationException("DB Error"));
 
@@ -252,4 +686,127 @@ class EmployeeServiceTest {
     }
 
 
-}
\ No newline at end of file
+
+    @Test
+    void replaceEmployee_WithMatchingCas_ShouldSaveWithoutReading() {
+        // Arrange
+        when(employeeRepository.findEmailOwner(validEmployee.getEmail()))
+                .thenReturn(Optional.of("1"));
+        when(employeeRepository.save(any(Employee.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Employee result = employeeService.replaceEmployee("1", validEmployee, 42L);
+
+        // Assert
+        assertEquals(42L, result.getVersion());
+        verify(employeeRepository, never()).findById(anyString());
+        verify(employeeRepository, never()).insertEmailKey(anyString(), anyString());
+    }
+
+    @Test
+    void replaceEmployee_WithStaleCas_ShouldThrowVersionConflict() {
+        // Arrange
+        when(employeeRepository.findEmailOwner(validEmployee.getEmail()))
+                .thenReturn(Optional.of("1"));
+        when(employeeRepository.save(any(Employee.class)))
+                .thenThrow(new OptimisticLockingFailureException("cas mismatch"));
+
+        // Act & Assert
+        assertThrows(EmployeeVersionConflictException.class, () -> {
+            employeeService.replaceEmployee("1", validEmployee, 41L);
+        });
+    }
+
+    @Test
+    void updateEmployee_WhenModifiedConcurrently_ShouldReadAndSaveAgain() {
+        // Arrange
+        when(employeeRepository.findById("1"))
+                .thenReturn(Optional.of(validEmployee));
+        when(employeeRepository.save(any(Employee.class)))
+                .thenThrow(new OptimisticLockingFailureException("cas mismatch"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Employee result = employeeService.updateEmployee("1", validEmployee);
+
+        // Assert
+        assertEquals("1", result.getId());
+        verify(employeeRepository, times(2)).findById("1");
+        verify(employeeRepository, times(2)).save(any(Employee.class));
+    }
+
+    @Test
+    void updateEmployee_WhenAlwaysModifiedConcurrently_ShouldThrowUpdateConflict() {
+        // Arrange
+        when(employeeRepository.findById("1"))
+                .thenReturn(Optional.of(validEmployee));
+        when(employeeRepository.save(any(Employee.class)))
+                .thenThrow(new OptimisticLockingFailureException("cas mismatch"));
+
+        // Act & Assert
+        assertThrows(EmployeeUpdateConflictException.class, () -> {
+            employeeService.updateEmployee("1", validEmployee);
+        });
+        verify(employeeRepository, times(EmployeeService.MAX_UPDATE_ATTEMPTS)).save(any(Employee.class));
+    }
+
+    @Test
+    void patchEmployee_ShouldWriteOnlyGivenFields() {
+        // Arrange
+        Employee changes = new Employee();
+        changes.setLastName("Updated");
+        when(employeeRepository.patchEmployee("1", Map.of("lastName", "Updated"), 42L))
+                .thenReturn(OptionalLong.of(43L));
+
+        // Act
+        long cas = employeeService.patchEmployee("1", changes, 42L);
+
+        // Assert
+        assertEquals(43L, cas);
+        verify(employeeRepository, never()).findEmailOwner(anyString());
+        verify(employeeRepository, never()).save(any(Employee.class));
+    }
+
+    @Test
+    void patchEmployee_WithNewEmail_ShouldClaimItFirst() {
+        // Arrange
+        Employee changes = new Employee();
+        changes.setEmail("new@example.com");
+        when(employeeRepository.findEmailOwner("new@example.com"))
+                .thenReturn(Optional.empty());
+        when(employeeRepository.insertEmailKey("new@example.com", "1"))
+                .thenReturn(true);
+        when(employeeRepository.patchEmployee("1", Map.of("email", "new@example.com"), 0L))
+                .thenReturn(OptionalLong.of(7L));
+
+        // Act
+        long cas = employeeService.patchEmployee("1", changes, 0L);
+
+        // Assert
+        assertEquals(7L, cas);
+    }
+
+    @Test
+    void patchEmployee_WithUnknownId_ShouldThrowNotFound() {
+        // Arrange
+        Employee changes = new Employee();
+        changes.setFirstName("Jim");
+        when(employeeRepository.patchEmployee("missing", Map.of("firstName", "Jim"), 0L))
+                .thenReturn(OptionalLong.empty());
+
+        // Act & Assert
+        assertThrows(EmployeeNotFoundException.class, () -> {
+            employeeService.patchEmployee("missing", changes, 0L);
+        });
+    }
+
+    @Test
+    void patchEmployee_WithNoFields_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(InvalidEmployeeDataException.class, () -> {
+            employeeService.patchEmployee("1", new Employee(), 0L);
+        });
+        verifyNoInteractions(employeeRepository);
+    }
+}
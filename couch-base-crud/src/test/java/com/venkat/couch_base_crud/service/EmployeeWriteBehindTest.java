@@ -0,0 +1,146 @@
+package com.venkat.couch_base_crud.service;
+
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EmployeeWriteBehindTest {
+
+    private final List<String> writes = new CopyOnWriteArrayList<>();
+    private final Map<String, Employee> written = new ConcurrentHashMap<>();
+    private EmployeeWriteBehind writeBehind;
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.close();
+    }
+
+    @Test
+    void flush_WithRepeatedUpdates_ShouldWriteLatestOncePerId() {
+        // Arrange
+        writeBehind = writeBehind(this::record, 10, 10);
+        writeBehind.submit("1", employee("1", "First"));
+        writeBehind.submit("1", employee("1", "Second"));
+        writeBehind.submit("2", employee("2", "Other"));
+
+        // Act
+        int count = writeBehind.flush();
+
+        // Assert
+        assertEquals(2, count);
+        assertEquals(2, writes.size());
+        assertEquals("Second", written.get("1").getLastName());
+        assertEquals(0, writeBehind.pendingCount());
+    }
+
+    @Test
+    void submit_WhenBufferFull_ShouldRefuseNewIdsButCoalesceBufferedOnes() throws Exception {
+        // Arrange
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        writeBehind = writeBehind((id, employee) -> {
+            writing.countDown();
+            await(release);
+            record(id, employee);
+        }, 2, 1);
+        writeBehind.submit("1", employee("1", "Doe"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        writeBehind.submit("2", employee("2", "Doe"));
+        writeBehind.submit("3", employee("3", "Doe"));
+
+        // Act
+        boolean newId = writeBehind.submit("4", employee("4", "Doe"));
+        boolean bufferedId = writeBehind.submit("3", employee("3", "Smith"));
+
+        // Assert
+        assertFalse(newId);
+        assertTrue(bufferedId);
+        release.countDown();
+    }
+
+    @Test
+    void flush_WhenWriteKeepsLosingRace_ShouldBufferUpdateAgain() {
+        // Arrange
+        EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+        EmployeeService employeeService = new EmployeeService(employeeRepository, new ConcurrentMapCacheManager());
+        AtomicInteger saves = new AtomicInteger();
+        when(employeeRepository.findById("1")).thenAnswer(invocation -> Optional.of(employee("1", "Doe")));
+        when(employeeRepository.save(any(Employee.class))).thenAnswer(invocation -> {
+            //every read and save round of the first flush loses
+            if (saves.incrementAndGet() <= EmployeeService.MAX_UPDATE_ATTEMPTS) {
+                throw new OptimisticLockingFailureException("cas mismatch");
+            }
+            Employee saved = invocation.getArgument(0);
+            record(saved.getId(), saved);
+            return saved;
+        });
+        writeBehind = writeBehind(employeeService::writeBufferedUpdate, 10, 10);
+        writeBehind.submit("1", employee("1", "Smith"));
+
+        // Act
+        int first = writeBehind.flush();
+        int pendingAfterFirst = writeBehind.pendingCount();
+        int second = writeBehind.flush();
+
+        // Assert
+        assertEquals(0, first);
+        assertEquals(1, pendingAfterFirst);
+        assertEquals(1, second);
+        assertEquals(List.of("1"), writes);
+        assertEquals("Smith", written.get("1").getLastName());
+    }
+
+    @Test
+    void close_ShouldWriteBufferedUpdatesAndRefuseNewOnes() {
+        // Arrange
+        writeBehind = writeBehind(this::record, 10, 10);
+        writeBehind.submit("1", employee("1", "Doe"));
+
+        // Act
+        writeBehind.close();
+
+        // Assert
+        assertEquals(List.of("1"), writes);
+        assertFalse(writeBehind.submit("2", employee("2", "Doe")));
+    }
+
+    private EmployeeWriteBehind writeBehind(BiConsumer<String, Employee> writer, int maxPending, int flushSize) {
+        //long interval, the tests flush themselves
+        return new EmployeeWriteBehind(writer, maxPending, flushSize, Duration.ofHours(1), 4);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void record(String id, Employee employee) {
+        writes.add(id);
+        written.put(id, employee);
+    }
+
+    private static Employee employee(String id, String lastName) {
+        return new Employee(id, "John", lastName, "john.doe@example.com", new String[]{"123 Main St"});
+    }
+}
@@ -0,0 +1,174 @@
+package com.venkat.couch_base_crud.service;
+
+import com.venkat.couch_base_crud.exception.CouchbaseOperationException;
+import com.venkat.couch_base_crud.exception.EmployeeAlreadyExistsException;
+import com.venkat.couch_base_crud.exception.EmployeeNotFoundException;
+import com.venkat.couch_base_crud.exception.InvalidEmployeeDataException;
+import com.venkat.couch_base_crud.model.Employee;
+import com.venkat.couch_base_crud.repository.ReactiveEmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataRetrievalFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveEmployeeServiceTest {
+
+    @Mock
+    private ReactiveEmployeeRepository employeeRepository;
+
+    @InjectMocks
+    private ReactiveEmployeeService employeeService;
+
+    private Employee validEmployee;
+
+    @BeforeEach
+    void setUp() {
+        validEmployee = new Employee(
+                "1", "John", "Doe", "john.doe@example.com",
+                new String[]{"123 Main St"});
+    }
+
+    @Test
+    void createEmployee_WithValidData_ShouldReturnSavedEmployee() {
+        when(employeeRepository.insertEmailKey(validEmployee.getEmail(), "1"))
+                .thenReturn(Mono.just(true));
+        when(employeeRepository.save(any(Employee.class)))
+                .thenReturn(Mono.just(validEmployee));
+
+        StepVerifier.create(employeeService.createEmployee(validEmployee))
+                .expectNext(validEmployee)
+                .verifyComplete();
+    }
+
+    @Test
+    void createEmployee_WithExistingEmail_ShouldFail() {
+        Employee sameEmail = new Employee(
+                "2", "Johnny", "Doe", validEmployee.getEmail(), new String[]{"1 Elm St"});
+        when(employeeRepository.insertEmailKey(validEmployee.getEmail(), "2"))
+                .thenReturn(Mono.just(false));
+        when(employeeRepository.findEmailOwner(validEmployee.getEmail()))
+                .thenReturn(Mono.just("1"));
+        when(employeeRepository.findById("1"))
+                .thenReturn(Mono.just(validEmployee));
+
+        StepVerifier.create(employeeService.createEmployee(sameEmail))
+                .expectError(EmployeeAlreadyExistsException.class)
+                .verify();
+        verify(employeeRepository, never()).save(any(Employee.class));
+    }
+
+    @Test
+    void createEmployee_WithInvalidData_ShouldFailWithoutTouchingRepository() {
+        StepVerifier.create(employeeService.createEmployee(new Employee()))
+                .expectError(InvalidEmployeeDataException.class)
+                .verify();
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void createEmployee_WhenKeyAlreadyOwnedBySameEmployee_ShouldSave() {
+        when(employeeRepository.insertEmailKey(validEmployee.getEmail(), "1"))
+                .thenReturn(Mono.just(false));
+        when(employeeRepository.findEmailOwner(validEmployee.getEmail()))
+                .thenReturn(Mono.just("1"));
+        when(employeeRepository.save(any(Employee.class)))
+                .thenReturn(Mono.just(validEmployee));
+
+        StepVerifier.create(employeeService.createEmployee(validEmployee))
+                .expectNext(validEmployee)
+                .verifyComplete();
+    }
+
+    @Test
+    void getEmployeeByEmail_ShouldResolveThroughLookupKey() {
+        when(employeeRepository.findEmailOwner("john.doe@example.com")).thenReturn(Mono.just("1"));
+        when(employeeRepository.findById("1")).thenReturn(Mono.just(validEmployee));
+
+        StepVerifier.create(employeeService.getEmployeeByEmail("john.doe@example.com"))
+                .expectNext(validEmployee)
+                .verifyComplete();
+    }
+
+    @Test
+    void getEmployeeById_WithInvalidId_ShouldFail() {
+        when(employeeRepository.findById("999")).thenReturn(Mono.empty());
+
+        StepVerifier.create(employeeService.getEmployeeById("999"))
+                .expectError(EmployeeNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void getEmployeeById_WithEmailLookupKey_ShouldNotReadIt() {
+        StepVerifier.create(employeeService.getEmployeeById("employee::email::john.doe@example.com"))
+                .expectError(EmployeeNotFoundException.class)
+                .verify();
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void deleteEmployee_WithEmailLookupKey_ShouldNotDeleteIt() {
+        StepVerifier.create(employeeService.deleteEmployee("employee::email::john.doe@example.com"))
+                .expectError(EmployeeNotFoundException.class)
+                .verify();
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void getAllEmployees_WhenRepositoryFails_ShouldMapToCouchbaseException() {
+        when(employeeRepository.findAll())
+                .thenReturn(Flux.error(new DataRetrievalFailureException("boom")));
+
+        StepVerifier.create(employeeService.getAllEmployees())
+                .expectError(CouchbaseOperationException.class)
+                .verify();
+    }
+
+    @Test
+    void updateEmployee_WithValidData_ShouldSaveMergedEmployee() {
+        Employee updatedDetails = new Employee(
+                null, "Updated", "Name", "updated@example.com",
+                new String[]{"New Address"});
+        when(employeeRepository.findById("1")).thenReturn(Mono.just(validEmployee));
+        when(employeeRepository.insertEmailKey("updated@example.com", "1")).thenReturn(Mono.just(true));
+        when(employeeRepository.removeEmailKey("john.doe@example.com", "1")).thenReturn(Mono.empty());
+        when(employeeRepository.save(any(Employee.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(employeeService.updateEmployee("1", updatedDetails))
+                .expectNextMatches(e -> "1".equals(e.getId()) && "Updated".equals(e.getFirstName()))
+                .verifyComplete();
+    }
+
+    @Test
+    void deleteEmployee_WithUnknownId_ShouldFailWithNotFound() {
+        when(employeeRepository.findEmail("missing")).thenReturn(Mono.empty());
+        when(employeeRepository.deleteById("missing"))
+                .thenReturn(Mono.error(new DataRetrievalFailureException("document not found")));
+
+        StepVerifier.create(employeeService.deleteEmployee("missing"))
+                .expectError(EmployeeNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void deleteEmployee_WithValidId_ShouldRemoveEmailKey() {
+        when(employeeRepository.findEmail("1")).thenReturn(Mono.just("john.doe@example.com"));
+        when(employeeRepository.deleteById("1")).thenReturn(Mono.empty());
+        when(employeeRepository.removeEmailKey("john.doe@example.com", "1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(employeeService.deleteEmployee("1"))
+                .verifyComplete();
+        verify(employeeRepository).removeEmailKey("john.doe@example.com", "1");
+    }
+}